@@ -0,0 +1,35 @@
+package benchmarks;
+
+import map.Arena;
+import map.ArenaGenerator;
+import map.MapConstants;
+import utils.ArenaPack;
+import utils.MapDescriptor;
+
+import java.io.IOException;
+
+/**
+ * The arenas the benchmarks run on, chosen with JMH's -p arena=<name>:
+ *   empty       the arena without obstacles that the simulator starts with
+ *   generated   GENERATED arenas from ArenaGenerator with seed 1
+ *   <file>      an arena pack (.pack) or a maps/<name>.txt arena file
+ */
+
+final class Arenas {
+    static final int GENERATED = 64;
+
+    private Arenas() {
+    }
+
+    static Arena[] load(String name) throws IOException {
+        switch (name) {
+            case "empty":
+                return new Arena[]{new Arena("empty", new boolean[MapConstants.MAP_ROWS][MapConstants.MAP_COLS])};
+            case "generated":
+                return new ArenaGenerator(1).stream(GENERATED).toArray(Arena[]::new);
+            default:
+                if (name.endsWith(".pack")) return ArenaPack.open(name).stream().toArray(Arena[]::new);
+                return new Arena[]{MapDescriptor.loadArena(name)};
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import algorithms.ExplorationAlgo;
+import algorithms.ExplorationStrategies;
+import algorithms.FastestPathAlgo;
+import map.Arena;
+import map.MapConstants;
+import org.openjdk.jmh.annotations.*;
+import robot.RobotConstants;
+import robot.RobotConstants.MOVEMENT;
+import simulator.Session;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the computation time of a whole exploration followed by planning the fastest path, for every exploration
+ * strategy, on the arenas in turn (see Arenas). Generated arenas make the numbers come from many reproducible layouts
+ * rather than a few hand-made maps.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExplorationBenchmark {
+    @Param({"generated"})
+    public String arena;
+
+    @Param({"right-hand", "frontier", "nbv"})
+    public String strategy;
+
+    private Arena[] arenas;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (ExplorationStrategies.create(strategy) == null) throw new IllegalArgumentException("Unknown exploration strategy " + strategy);
+        arenas = Arenas.load(arena);
+    }
+
+    @Benchmark
+    public List<MOVEMENT> exploreAndPlan() {
+        Session session = new Session();
+        session.setVerbose(false);
+        arenas[next].applyTo(session.getRealMap());
+        next = (next + 1) % arenas.length;
+
+        ExplorationAlgo exploration = session.createExploration(MapConstants.MAP_SIZE, 3600);
+        exploration.setStrategy(ExplorationStrategies.create(strategy));
+        exploration.runExploration();
+
+        session.resetBot();
+        FastestPathAlgo fastestPath = session.createFastestPath();
+        return fastestPath.planPath(RobotConstants.GOAL_ROW, RobotConstants.GOAL_COL);
+    }
+}
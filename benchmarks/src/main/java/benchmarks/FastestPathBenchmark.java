@@ -0,0 +1,66 @@
+package benchmarks;
+
+import algorithms.FastestPathAlgo;
+import map.Arena;
+import org.openjdk.jmh.annotations.*;
+import robot.RobotConstants;
+import robot.RobotConstants.MOVEMENT;
+import simulator.Session;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks FastestPathAlgo from START to GOAL on fully explored arenas (see Arenas), with both planners. run
+ * includes executing the path on the simulated robot, which moves on a virtual clock and so does not wait.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FastestPathBenchmark {
+    @Param({"empty", "generated"})
+    public String arena;
+
+    @Param({"cell", "segment"})
+    public String planner;
+
+    private Session[] sessions;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Arena[] arenas = Arenas.load(arena);
+        sessions = new Session[arenas.length];
+        for (int i = 0; i < arenas.length; i++) {
+            sessions[i] = new Session();
+            sessions[i].setVerbose(false);
+            arenas[i].applyTo(sessions[i].getRealMap());
+            arenas[i].applyTo(sessions[i].getExploredMap());
+        }
+    }
+
+    @Benchmark
+    public List<MOVEMENT> plan() {
+        return create().planPath(RobotConstants.GOAL_ROW, RobotConstants.GOAL_COL);
+    }
+
+    @Benchmark
+    public String run() {
+        return create().runFastestPath(RobotConstants.GOAL_ROW, RobotConstants.GOAL_COL);
+    }
+
+    private FastestPathAlgo create() {
+        Session session = sessions[next];
+        next = (next + 1) % sessions.length;
+
+        session.resetBot();
+        FastestPathAlgo fastestPath = session.createFastestPath();
+        fastestPath.setSegmentMode(planner.equals("segment"));
+        return fastestPath;
+    }
+}
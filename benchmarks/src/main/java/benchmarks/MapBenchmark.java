@@ -0,0 +1,65 @@
+package benchmarks;
+
+import map.Arena;
+import map.Map;
+import map.MapConstants;
+import org.openjdk.jmh.annotations.*;
+import robot.Robot;
+import robot.RobotConstants;
+import utils.MapDescriptor;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks Map.setObstacleCell(), which also updates the virtual walls around the cell, and the map descriptor
+ * strings generated for the RasPi after every sensing of the real robot.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapBenchmark {
+    @Param({"generated"})
+    public String arena;
+
+    private Map[] maps;
+    private Map obstacleMap;
+    private int nextMap;
+    private int nextCell;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Robot bot = new Robot(RobotConstants.START_ROW, RobotConstants.START_COL, false);
+        Arena[] arenas = Arenas.load(arena);
+        maps = new Map[arenas.length];
+        for (int i = 0; i < arenas.length; i++) {
+            maps[i] = new Map(bot);
+            arenas[i].applyTo(maps[i]);
+        }
+        obstacleMap = new Map(bot);
+    }
+
+    /**
+     * Sets every cell to an obstacle in turn, then clears them again in the same order.
+     */
+    @Benchmark
+    public Map setObstacleCell() {
+        int cell = nextCell % MapConstants.MAP_SIZE;
+        boolean obstacle = nextCell < MapConstants.MAP_SIZE;
+        nextCell = (nextCell + 1) % (2 * MapConstants.MAP_SIZE);
+
+        obstacleMap.setObstacleCell(cell / MapConstants.MAP_COLS, cell % MapConstants.MAP_COLS, obstacle);
+        return obstacleMap;
+    }
+
+    @Benchmark
+    public String[] generateMapDescriptor() {
+        Map map = maps[nextMap];
+        nextMap = (nextMap + 1) % maps.length;
+        return MapDescriptor.generateMapDescriptor(map, false);
+    }
+}
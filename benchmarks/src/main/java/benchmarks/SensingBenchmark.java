@@ -0,0 +1,127 @@
+package benchmarks;
+
+import map.Arena;
+import map.Map;
+import map.MapConstants;
+import org.openjdk.jmh.annotations.*;
+import robot.Robot;
+import robot.RobotConstants.DIRECTION;
+import robot.Sensor;
+import simulator.Session;
+import utils.MapDescriptor;
+import utils.SensorDataParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks sensing from every pose the robot can take in the arenas (see Arenas), in turn:
+ *   sensor      Sensor.sense() of the long range sensor
+ *   robot       Robot.sense() of a simulated robot, i.e. all six sensors
+ *   sdata       what Robot.sense() does for the real robot once the SDATA packet has arrived: parse it, update the
+ *               explored map and generate the map descriptor for the RasPi
+ *
+ * The explored maps keep what was sensed, so after the first poses they are as full as late in an exploration.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SensingBenchmark {
+    @Param({"generated"})
+    public String arena;
+
+    private Session[] sessions;
+    private int[][] poses;              // [session, row, col, direction]
+    private String[] packets;           // the SDATA packet the real robot would send from each pose
+    private final int[] readings = new int[SensorDataParser.NUM_READINGS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Arena[] arenas = Arenas.load(arena);
+        sessions = new Session[arenas.length];
+        List<int[]> poseList = new ArrayList<>();
+        for (int i = 0; i < arenas.length; i++) {
+            sessions[i] = new Session();
+            sessions[i].setVerbose(false);
+            arenas[i].applyTo(sessions[i].getRealMap());
+            for (int row = 1; row < MapConstants.MAP_ROWS - 1; row++) {
+                for (int col = 1; col < MapConstants.MAP_COLS - 1; col++) {
+                    if (fits(arenas[i], row, col)) {
+                        for (DIRECTION dir : DIRECTION.values()) poseList.add(new int[]{i, row, col, dir.ordinal()});
+                    }
+                }
+            }
+        }
+        poses = poseList.toArray(new int[0][]);
+
+        packets = new String[poses.length];
+        for (int i = 0; i < poses.length; i++) {
+            Session session = sessions[poses[i][0]];
+            Map scratchMap = new Map(session.getBot());
+            int[] r = setPose(poses[i]).sense(scratchMap, session.getRealMap());
+            packets[i] = "SDATA;SRFL_" + r[0] + ";SRFC_" + r[1] + ";SRFR_" + r[2] + ";SRL_" + r[3] + ";SRR_" + r[4] + ";LRL_" + r[5];
+        }
+    }
+
+    @Benchmark
+    public int sensor() {
+        int[] pose = nextPose();
+        Session session = sessions[pose[0]];
+        Sensor[] sensors = setPose(pose).getSensors();
+        return sensors[sensors.length - 1].sense(session.getExploredMap(), session.getRealMap());
+    }
+
+    @Benchmark
+    public int[] robot() {
+        int[] pose = nextPose();
+        Session session = sessions[pose[0]];
+        return setPose(pose).sense(session.getExploredMap(), session.getRealMap());
+    }
+
+    @Benchmark
+    public String[] sdata() {
+        String packet = packets[next];
+        int[] pose = nextPose();
+        Map exploredMap = sessions[pose[0]].getExploredMap();
+        Sensor[] sensors = setPose(pose).getSensors();
+
+        if (!SensorDataParser.parse(packet, readings)) throw new IllegalStateException("Malformed sensor data: " + packet);
+        for (int i = 0; i < sensors.length; i++) {
+            sensors[i].senseReal(exploredMap, readings[i]);
+        }
+        return MapDescriptor.generateMapDescriptor(exploredMap, false);
+    }
+
+    private int[] nextPose() {
+        int[] pose = poses[next];
+        next = (next + 1) % poses.length;
+        return pose;
+    }
+
+    private Robot setPose(int[] pose) {
+        Robot bot = sessions[pose[0]].getBot();
+        bot.setRobotPos(pose[1], pose[2]);
+        bot.setRobotDir(DIRECTION.values()[pose[3]]);
+        bot.setSensors();
+        return bot;
+    }
+
+    /**
+     * Returns true if the robot's 3x3 footprint centered at [row, col] is clear of obstacles.
+     */
+    private static boolean fits(Arena arena, int row, int col) {
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = col - 1; c <= col + 1; c++) {
+                if (arena.isObstacle(r, c)) return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import utils.SensorDataParser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmark comparing SensorDataParser against the split-based SDATA parsing previously used in Robot.sense().
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SensorDataParserBenchmark {
+    private static final String[] PACKETS = {
+            "SDATA;SRFL_1;SRFC_2;SRFR_-1;SRL_1;SRR_2;LRL_3",
+            "SDATA;SRFL_-1;SRFC_-1;SRFR_-1;SRL_-1;SRR_-1;LRL_-1",
+            "SDATA;SRFL_2;SRFC_1;SRFR_1;SRL_2;SRR_1;LRL_4",
+            "SDATA;SRFL_1;SRFC_1;SRFR_2;SRL_-1;SRR_1;LRL_0"
+    };
+
+    private final int[] result = new int[SensorDataParser.NUM_READINGS];
+    private int next;
+
+    @Benchmark
+    public int[] split() {
+        return parseWithSplit(PACKETS[next++ & 3]);
+    }
+
+    @Benchmark
+    public int[] parser() {
+        SensorDataParser.parse(PACKETS[next++ & 3], result);
+        return result;
+    }
+
+    /**
+     * The original parsing code from Robot.sense().
+     */
+    private static int[] parseWithSplit(String msg) {
+        int[] result = new int[6];
+        String[] msgArr = msg.split(";");
+
+        if (msgArr[0].equals("SDATA")) {
+            result[0] = Integer.parseInt(msgArr[1].split("_")[1]);
+            result[1] = Integer.parseInt(msgArr[2].split("_")[1]);
+            result[2] = Integer.parseInt(msgArr[3].split("_")[1]);
+            result[3] = Integer.parseInt(msgArr[4].split("_")[1]);
+            result[4] = Integer.parseInt(msgArr[5].split("_")[1]);
+            result[5] = Integer.parseInt(msgArr[6].split("_")[1]);
+        }
+
+        return result;
+    }
+}
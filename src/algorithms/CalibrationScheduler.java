@@ -0,0 +1,97 @@
+package algorithms;
+
+import robot.RobotConstants.MOVEMENT;
+
+// @formatter:off
+/**
+ * Decides when the real robot should calibrate against a wall, from an estimate of the drift it has accumulated since
+ * the last calibration.
+ *
+ *   drift < SOFT_LIMIT              no calibration
+ *   SOFT_LIMIT <= drift             calibrate if the robot already faces a wall (no extra turns)
+ *   HARD_LIMIT <= drift             turn to a wall and calibrate, unless the route passes a pose facing one soon
+ *   MAX_DRIFT <= drift              turn to a wall and calibrate
+ *
+ * Turns are weighted more than straight moves, since heading errors grow into position errors on every later cell.
+ */
+// @formatter:on
+
+public class CalibrationScheduler {
+    public static final double DRIFT_PER_CELL = 1;          // forward or backward
+    public static final double DRIFT_PER_TURN = 2;
+    public static final double SOFT_LIMIT = 4;
+    public static final double HARD_LIMIT = 8;
+    public static final double MAX_DRIFT = 12;
+
+    private double drift;
+    private int calibrations;
+    private int extraTurns;
+
+    /**
+     * Accounts for count consecutive executions of a movement. CALIBRATE resets the drift.
+     */
+    public void onMove(MOVEMENT m, int count) {
+        drift += getDrift(m, count);
+        if (m == MOVEMENT.CALIBRATE) {
+            drift = 0;
+            calibrations++;
+        }
+    }
+
+    /**
+     * Counts turns made only to face a wall for calibration (and back).
+     */
+    public void onExtraTurns(int turns) {
+        extraTurns += turns;
+    }
+
+    public double getDrift() {
+        return drift;
+    }
+
+    /**
+     * Returns the drift a movement adds.
+     */
+    public static double getDrift(MOVEMENT m, int count) {
+        switch (m) {
+            case FORWARD:
+            case BACKWARD:
+                return count * DRIFT_PER_CELL;
+            case RIGHT:
+            case LEFT:
+                return count * DRIFT_PER_TURN;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Returns true if the robot should calibrate when it can do so without turning.
+     */
+    public boolean wantsCalibration() {
+        return drift >= SOFT_LIMIT;
+    }
+
+    /**
+     * Returns true if the robot should turn to a wall to calibrate now. opportunityAhead tells if the route reaches a
+     * pose facing a wall before the drift gets to MAX_DRIFT (see getDriftBudget()).
+     */
+    public boolean needsCalibration(boolean opportunityAhead) {
+        return drift >= MAX_DRIFT || (drift >= HARD_LIMIT && !opportunityAhead);
+    }
+
+    /**
+     * Returns how much more drift may accumulate before a calibration is forced.
+     */
+    public double getDriftBudget() {
+        return MAX_DRIFT - drift;
+    }
+
+    public int getCalibrations() {
+        return calibrations;
+    }
+
+    public int getExtraTurns() {
+        return extraTurns;
+    }
+}
@@ -0,0 +1,223 @@
+package algorithms;
+
+import algorithms.NextBestViewPlanner.Pose;
+import map.Map;
+import map.MapConstants;
+import robot.MovementTimingModel;
+import robot.Robot;
+import robot.RobotConstants;
+import robot.RobotConstants.DIRECTION;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+
+// @formatter:off
+/**
+ * Plans a sweep over the cells still unexplored after the main exploration lap.
+ *
+ *   1. Group the unexplored cells into connected pockets
+ *   2. Greedily pick observation poses until every pocket cell that any reachable pose can see is covered
+ *   3. Order the poses as a path  robot --> poses --> START  with nearest neighbour, then improve it with 2-opt
+ *
+ * Sensor footprints and travel times come from NextBestViewPlanner. Travel times between the poses are computed
+ * once per plan() and cached in a matrix for the ordering.
+ */
+// @formatter:on
+
+public class CompletionSweep {
+    private final NextBestViewPlanner views;
+    private final double[] homeCosts = new double[PoseIndex.NUM_STATES];
+    private double plannedCost;
+
+    public CompletionSweep(Map map, MovementTimingModel timing) {
+        this.views = new NextBestViewPlanner(map, timing);
+    }
+
+    /**
+     * Returns the observation poses in visiting order, or an empty list if nothing reachable is left to see.
+     */
+    public List<Pose> plan(Robot bot) {
+        views.takeSnapshot();
+        double[] fromBot = views.getTravelCosts(bot.getRobotPosRow(), bot.getRobotPosCol(), bot.getRobotCurDir());
+
+        if (bot.isVerbose()) System.out.println("Completion sweep: " + countPockets() + " unexplored pockets");
+
+        // Candidate poses: everything reachable that sees an unexplored cell.
+        List<Integer> candidates = new ArrayList<>();
+        List<BitSet> footprints = new ArrayList<>();
+        for (int s = 0; s < PoseIndex.NUM_STATES; s++) {
+            if (fromBot[s] == Double.MAX_VALUE) continue;
+            int[] visible = views.getVisibleUnknown(s);
+            if (visible.length == 0) continue;
+
+            BitSet footprint = new BitSet(MapConstants.MAP_SIZE);
+            for (int cell : visible) footprint.set(cell);
+            candidates.add(s);
+            footprints.add(footprint);
+        }
+
+        // Greedy set cover: take the pose that sees the most uncovered cells, the nearer one on ties.
+        List<Integer> stops = new ArrayList<>();
+        BitSet covered = new BitSet(MapConstants.MAP_SIZE);
+        while (true) {
+            int best = -1, bestNew = 0;
+            for (int i = 0; i < candidates.size(); i++) {
+                BitSet uncovered = (BitSet) footprints.get(i).clone();
+                uncovered.andNot(covered);
+                int n = uncovered.cardinality();
+                if (n > bestNew || (n == bestNew && n > 0 && fromBot[candidates.get(i)] < fromBot[candidates.get(best)])) {
+                    best = i;
+                    bestNew = n;
+                }
+            }
+            if (best < 0) break;
+
+            stops.add(candidates.get(best));
+            covered.or(footprints.get(best));
+        }
+        if (stops.isEmpty()) return new ArrayList<>();
+
+        // Nodes: 0 = robot, 1..k = stops, k + 1 = START. Travel times are not symmetric (headings), so keep both ways.
+        int k = stops.size();
+        double[][] dist = new double[k + 2][k + 2];
+        for (int j = 0; j < k; j++) dist[0][j + 1] = fromBot[stops.get(j)];
+        dist[0][k + 1] = getHomeCost(fromBot);
+        for (int i = 0; i < k; i++) {
+            int s = stops.get(i);
+            double[] from = views.getTravelCosts(PoseIndex.getRow(s), PoseIndex.getCol(s), DIRECTION.get(PoseIndex.getDir(s)));
+            for (int j = 0; j < k; j++) dist[i + 1][j + 1] = from[stops.get(j)];
+            dist[i + 1][k + 1] = homeCosts[s] = getHomeCost(from);
+        }
+
+        int[] order = nearestNeighbour(dist, k);
+        twoOpt(order, dist);
+        plannedCost = getCost(order, dist);
+
+        List<Pose> result = new ArrayList<>();
+        for (int i = 1; i <= k; i++) {
+            int s = stops.get(order[i] - 1);
+            result.add(new Pose(PoseIndex.getRow(s), PoseIndex.getCol(s), DIRECTION.get(PoseIndex.getDir(s)), views.getVisibleUnknown(s).length, dist[order[i - 1]][order[i]]));
+        }
+        if (bot.isVerbose()) System.out.println("Completion sweep: " + k + " poses covering " + covered.cardinality() + " cells, about " + Math.round(plannedCost) + " ms");
+        return result;
+    }
+
+    /**
+     * Returns the estimated travel time of the last plan(), including the way back to START.
+     */
+    public double getPlannedCost() {
+        return plannedCost;
+    }
+
+    /**
+     * Returns the number of unexplored cells a pose would still reveal on the current map.
+     */
+    public int getGain(Pose pose) {
+        return views.getGain(pose);
+    }
+
+    /**
+     * Returns true if the robot can get to the pose and from there back to START before the deadline.
+     */
+    public boolean fitsBudget(Robot bot, Pose pose, long now, long deadline) {
+        views.takeSnapshot();
+        double[] fromBot = views.getTravelCosts(bot.getRobotPosRow(), bot.getRobotPosCol(), bot.getRobotCurDir());
+        double toPose = fromBot[PoseIndex.state(pose.row, pose.col, pose.dir.ordinal())];
+        double toHome = homeCosts[PoseIndex.state(pose.row, pose.col, pose.dir.ordinal())];
+        return toPose < Double.MAX_VALUE && now + toPose + toHome <= deadline;
+    }
+
+    private double getHomeCost(double[] costs) {
+        double best = Double.MAX_VALUE;
+        for (DIRECTION d : DIRECTION.values()) {
+            best = Math.min(best, costs[PoseIndex.state(RobotConstants.START_ROW, RobotConstants.START_COL, d.ordinal())]);
+        }
+        return best;
+    }
+
+    /**
+     * Returns a path 0 --> all stops --> k + 1 that always moves on to the nearest unvisited stop.
+     */
+    private static int[] nearestNeighbour(double[][] dist, int k) {
+        int[] order = new int[k + 2];
+        boolean[] used = new boolean[k + 1];
+        for (int i = 1; i <= k; i++) {
+            int next = -1;
+            for (int j = 1; j <= k; j++) {
+                if (!used[j] && (next < 0 || dist[order[i - 1]][j] < dist[order[i - 1]][next])) next = j;
+            }
+            used[next] = true;
+            order[i] = next;
+        }
+        order[k + 1] = k + 1;
+        return order;
+    }
+
+    /**
+     * Reverses sections of the path while that makes it cheaper. The first and last nodes stay in place.
+     */
+    private static void twoOpt(int[] order, double[][] dist) {
+        double cost = getCost(order, dist);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 1; i < order.length - 2; i++) {
+                for (int j = i + 1; j < order.length - 1; j++) {
+                    reverse(order, i, j);
+                    double newCost = getCost(order, dist);
+                    if (newCost < cost - 1e-9) {
+                        cost = newCost;
+                        improved = true;
+                    } else {
+                        reverse(order, i, j);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void reverse(int[] order, int i, int j) {
+        for (; i < j; i++, j--) {
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+    }
+
+    private static double getCost(int[] order, double[][] dist) {
+        double cost = 0;
+        for (int i = 1; i < order.length; i++) cost += dist[order[i - 1]][order[i]];
+        return cost;
+    }
+
+    /**
+     * Returns the number of 4-connected groups of unexplored cells in the last snapshot.
+     */
+    private int countPockets() {
+        boolean[] seen = new boolean[MapConstants.MAP_SIZE];
+        Queue<Integer> queue = new ArrayDeque<>();
+        int pockets = 0;
+        for (int start = 0; start < MapConstants.MAP_SIZE; start++) {
+            if (seen[start] || !views.isUnknown(start)) continue;
+
+            pockets++;
+            seen[start] = true;
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                int cell = queue.poll();
+                int row = cell / MapConstants.MAP_COLS, col = cell % MapConstants.MAP_COLS;
+                int[] next = {row > 0 ? cell - MapConstants.MAP_COLS : -1, row < MapConstants.MAP_ROWS - 1 ? cell + MapConstants.MAP_COLS : -1, col > 0 ? cell - 1 : -1, col < MapConstants.MAP_COLS - 1 ? cell + 1 : -1};
+                for (int n : next) {
+                    if (n >= 0 && !seen[n] && views.isUnknown(n)) {
+                        seen[n] = true;
+                        queue.add(n);
+                    }
+                }
+            }
+        }
+        return pockets;
+    }
+}
@@ -8,167 +8,365 @@ import robot.RobotConstants;
 import robot.RobotConstants.DIRECTION;
 import robot.RobotConstants.MOVEMENT;
 import utils.CommMgr;
+import utils.LongHashSet;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.function.BooleanSupplier;
 
 /**
- * Exploration algorithm for the robot.
+ * Exploration algorithm for the robot. Where the robot goes is up to an ExplorationStrategy; this class senses after
+ * every move, calibrates, keeps track of the time left and brings the robot back to START.
  */
 
 public class ExplorationAlgo {
+    private static final int VIEW_RADIUS = 3;       // cells around a target pose counted as its information gain
+    private static final int MAX_SWEEPS = 3;        // completion sweeps after the wall-following lap
+    private static final double HOME_MARGIN = 0.1; // share of the estimated way home kept spare, on top of two turns
+    static final int MAX_FORWARD_RUN = RobotConstants.MAX_REPEAT;  // most cells moved forward in one instruction
+
     private final Map exploredMap;
     private final Map realMap;
     private final Robot bot;
+    private final CommMgr comm;         // the robot's link, null when simulated
     private final int coverageLimit;
     private final int timeLimit;
     private int areaExplored;
     private long startTime;
     private long endTime;
-    private int lastCalibrate;
+    private final CalibrationScheduler calibration = new CalibrationScheduler();
+    private List<MOVEMENT> upcoming;    // rest of the path being followed, if any
     private boolean calibrationMode;
+    private FrontierSet frontier;       // kept up to date by moveBot()
+    private HomeDistanceField home;     // kept up to date by moveBot()
+    private final LongHashSet visitedStates = new LongHashSet(1024);    // see getPoseStateKey()
+    private final boolean[][] escapeTargets = new boolean[MapConstants.MAP_ROWS][MapConstants.MAP_COLS];
+    private int loopsDetected;
+    private int escapes;
+    private NextBestViewPlanner views;  // tells if sensing at a pose could reveal anything
+    private ExplorationStrategy strategy = ExplorationStrategies.createConfigured();
 
     public ExplorationAlgo(Map exploredMap, Map realMap, Robot bot, int coverageLimit, int timeLimit) {
         this.exploredMap = exploredMap;
         this.realMap = realMap;
         this.bot = bot;
+        this.comm = bot.getCommMgr();
         this.coverageLimit = coverageLimit;
         this.timeLimit = timeLimit;
     }
 
+    /**
+     * Selects the exploration strategy. Defaults to the one given by -Dmdp.exploration (see ExplorationStrategies).
+     */
+    public void setStrategy(ExplorationStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public ExplorationStrategy getStrategy() {
+        return strategy;
+    }
+
     /**
      * Main method that is called to start the exploration.
      */
     public void runExploration() {
         if (bot.getRealBot()) {
-            System.out.println("Starting calibration...");
+            if (bot.isVerbose()) System.out.println("Starting calibration...");
 
-            CommMgr.getCommMgr().recvMsg();
+            comm.recvMsg();
             if (bot.getRealBot()) {
                 bot.move(MOVEMENT.LEFT, false);
-                CommMgr.getCommMgr().recvMsg();
+                comm.recvMsg();
                 bot.move(MOVEMENT.CALIBRATE, false);
-                CommMgr.getCommMgr().recvMsg();
+                comm.recvMsg();
                 bot.move(MOVEMENT.LEFT, false);
-                CommMgr.getCommMgr().recvMsg();
+                comm.recvMsg();
                 bot.move(MOVEMENT.CALIBRATE, false);
-                CommMgr.getCommMgr().recvMsg();
+                comm.recvMsg();
                 bot.move(MOVEMENT.RIGHT, false);
-                CommMgr.getCommMgr().recvMsg();
+                comm.recvMsg();
                 bot.move(MOVEMENT.CALIBRATE, false);
-                CommMgr.getCommMgr().recvMsg();
+                comm.recvMsg();
                 bot.move(MOVEMENT.RIGHT, false);
             }
 
             while (true) {
-                System.out.println("Waiting for EX_START...");
-                String msg = CommMgr.getCommMgr().recvMsg();
+                if (bot.isVerbose()) System.out.println("Waiting for EX_START...");
+                String msg = comm.recvMsg();
+                if (msg == null) {
+                    System.out.println("Lost the connection to the RasPi!");
+                    return;
+                }
                 String[] msgArr = msg.split(";");
                 if (msgArr[0].equals(CommMgr.EX_START)) break;
             }
         }
 
-        System.out.println("Starting exploration...");
+        if (bot.isVerbose()) System.out.println("Starting exploration...");
 
-        startTime = System.currentTimeMillis();
+        startTime = bot.getClock().currentTimeMillis();
         endTime = startTime + (timeLimit * 1000);
 
         if (bot.getRealBot()) {
-            CommMgr.getCommMgr().sendMsg(null, CommMgr.BOT_START);
+            comm.sendMsg(null, CommMgr.BOT_START);
         }
         senseAndRepaint();
 
         areaExplored = calculateAreaExplored();
-        System.out.println("Explored Area: " + areaExplored);
+        if (bot.isVerbose()) System.out.println("Explored Area: " + areaExplored);
+
+        home = new HomeDistanceField(exploredMap, bot.getDurationModel());
+        frontier = new FrontierSet(exploredMap);
+        views = new NextBestViewPlanner(exploredMap, bot.getTimingModel());
 
-        explorationLoop(bot.getRobotPosRow(), bot.getRobotPosCol());
+        explorationLoop();
     }
 
     /**
-     * Loops through robot movements until one (or more) of the following conditions is met:
-     * 1. Robot is back at (r, c)
+     * Returns the number of times the robot came back to a pose without having explored anything since (see
+     * escapeLoop()).
+     */
+    public int getLoopsDetected() {
+        return loopsDetected;
+    }
+
+    /**
+     * Returns the number of planned escapes from such loops.
+     */
+    public int getEscapes() {
+        return escapes;
+    }
+
+    Map getExploredMap() {
+        return exploredMap;
+    }
+
+    Robot getBot() {
+        return bot;
+    }
+
+    int getAreaExplored() {
+        return areaExplored;
+    }
+
+    /**
+     * Returns the frontier between explored and unexplored cells, kept up to date while the robot moves.
+     */
+    FrontierSet getFrontier() {
+        return frontier;
+    }
+
+    /**
+     * Lets the strategy move the robot until one (or more) of the following conditions is met:
+     * 1. The strategy has nothing left to explore
      * 2. areaExplored > coverageLimit
-     * 3. System.currentTimeMillis() > endTime
+     * 3. It is time to return to START (see isTimeToGoHome())
      */
-    private void explorationLoop(int r, int c) {
-        do {
-            nextMove();
+    private void explorationLoop() {
+        if (bot.isVerbose()) System.out.println("Exploration strategy: " + strategy.getName());
+        strategy.start(this);
+        while (areaExplored <= coverageLimit && !isTimeToGoHome()) {
+            if (!strategy.step(this)) break;
+            if (bot.isVerbose()) System.out.println("Area explored: " + areaExplored);
+        }
+        strategy.finish(this);
 
-            areaExplored = calculateAreaExplored();
-            System.out.println("Area explored: " + areaExplored);
+        goHome();
+    }
+
+    /**
+     * Checks whether the robot is back in a pose it has been in before with nothing explored since, and if so drives
+     * to the nearest frontier (see escapeToFrontier()). Returns false if it is caught in such a loop and there is no
+     * frontier left to escape to.
+     */
+    boolean escapeLoop() {
+        if (visitedStates.add(getPoseStateKey())) return true;
+
+        loopsDetected++;
+        if (bot.isVerbose()) System.out.println("Loop detected at (" + bot.getRobotPosRow() + ", " + bot.getRobotPosCol() + ")!");
+        return escapeToFrontier();
+    }
 
-            if (bot.getRobotPosRow() == r && bot.getRobotPosCol() == c) {
-                if (areaExplored >= 100) {
-                    break;
+    /**
+     * Visits observation poses for the pockets the lap left unexplored (see CompletionSweep), as long as the robot can
+     * still get back to START within the time limit. Replans while a sweep reveals new pockets.
+     */
+    void completionSweep() {
+        CompletionSweep sweep = new CompletionSweep(exploredMap, bot.getDurationModel());
+
+        for (int i = 0; i < MAX_SWEEPS && areaExplored <= coverageLimit && !isTimeToGoHome(); i++) {
+            int areaBefore = areaExplored;
+            for (NextBestViewPlanner.Pose pose : sweep.plan(bot)) {
+                if (areaExplored > coverageLimit) break;
+                if (sweep.getGain(pose) == 0) continue;     // already seen on the way
+                if (!sweep.fitsBudget(bot, pose, bot.getClock().currentTimeMillis(), endTime - getHomeMargin())) continue;
+
+                List<MOVEMENT> movements = new FastestPathAlgo(exploredMap, bot).planPath(pose.row, pose.col);
+                if (movements != null && followPath(movements, () -> sweep.getGain(pose) > 0)) turnBotDirection(pose.dir);
+            }
+            if (areaExplored == areaBefore) break;
+        }
+    }
+
+    /**
+     * Follows a planned path while worthContinuing holds after each move. Returns false if the path was abandoned,
+     * because a newly sensed obstacle blocks it, worthContinuing failed or a limit was reached.
+     */
+    boolean followPath(List<MOVEMENT> movements, BooleanSupplier worthContinuing) {
+        for (int i = 0; i < movements.size(); ) {
+            MOVEMENT m = movements.get(i);
+            int count = 1;
+            if (m == MOVEMENT.FORWARD) {
+                // The path was planned on the map as it was; newly sensed obstacles may block it.
+                if (!lookForward()) return false;
+
+                int run = 1;
+                while (i + run < movements.size() && movements.get(i + run) == MOVEMENT.FORWARD) run++;
+                count = getForwardRun(run, false);
+                upcoming = movements.subList(i + count, movements.size());
+                moveBotForward(count);
+            } else {
+                upcoming = movements.subList(i + 1, movements.size());
+                moveBot(m);
+            }
+            upcoming = null;
+            i += count;
+
+            if (bot.isVerbose()) System.out.println("Area explored: " + areaExplored);
+
+            if (!worthContinuing.getAsBoolean() || areaExplored > coverageLimit || isTimeToGoHome()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drives to the nearest pose near the frontier that has not been escaped to before. Returns false if there is
+     * none.
+     */
+    private boolean escapeToFrontier() {
+        int[] target = chooseFrontierTarget(new FrontierSet(exploredMap), escapeTargets, true);
+        if (target == null) return false;
+
+        // Some unexplored cells cannot be seen from anywhere, so never try the same target twice.
+        escapeTargets[target[0]][target[1]] = true;
+        List<MOVEMENT> movements = new FastestPathAlgo(exploredMap, bot).planPath(target[0], target[1]);
+        if (movements == null) return false;
+
+        escapes++;
+        followPath(movements, () -> getInformationGain(target[0], target[1]) > 0);
+        return true;
+    }
+
+    /**
+     * Returns a key for the robot's pose together with the number of cells explored so far.
+     */
+    private long getPoseStateKey() {
+        return (long) areaExplored * PoseIndex.NUM_STATES + getPoseKey();
+    }
+
+    /**
+     * Returns a key for the robot's pose. A path that is blocked right away leaves it unchanged, and planning it again
+     * from the same pose would give the same path.
+     */
+    long getPoseKey() {
+        return PoseIndex.state(bot.getRobotPosRow(), bot.getRobotPosCol(), bot.getRobotCurDir().ordinal());
+    }
+
+    /**
+     * Returns [row, col] of the pose that maximises information gain / travel cost (or, if nearest is set, the
+     * nearest pose with any gain), or null if there is none. Travel costs come from a breadth-first search over the
+     * cells the robot's center can visit.
+     */
+    int[] chooseFrontierTarget(FrontierSet frontier, boolean[][] done, boolean nearest) {
+        if (frontier.size() == 0) return null;
+
+        int[][] dist = new int[MapConstants.MAP_ROWS][MapConstants.MAP_COLS];
+        for (int[] row : dist) Arrays.fill(row, -1);
+        Queue<int[]> queue = new ArrayDeque<>();
+        dist[bot.getRobotPosRow()][bot.getRobotPosCol()] = 0;
+        queue.add(new int[]{bot.getRobotPosRow(), bot.getRobotPosCol()});
+
+        int[] best = null;
+        double bestScore = 0;
+        double turn = bot.getTimingModel().getTurn();
+        while (!queue.isEmpty()) {
+            int[] cur = queue.poll();
+            int r = cur[0], c = cur[1], d = dist[r][c];
+
+            if (d > 0 && !done[r][c] && frontier.isNear(r, c, VIEW_RADIUS)) {
+                int gain = getInformationGain(r, c);
+                double score = gain / (bot.getTimingModel().getForwardTime(d) + turn);
+                if (gain > 0 && nearest) return cur;
+                if (gain > 0 && score > bestScore) {
+                    bestScore = score;
+                    best = cur;
                 }
             }
-        } while (areaExplored <= coverageLimit && System.currentTimeMillis() <= endTime);
 
-        goHome();
+            int[][] next = {{r + 1, c}, {r - 1, c}, {r, c + 1}, {r, c - 1}};
+            for (int[] n : next) {
+                if (isExploredAndFree(n[0], n[1]) && dist[n[0]][n[1]] < 0) {
+                    dist[n[0]][n[1]] = d + 1;
+                    queue.add(n);
+                }
+            }
+        }
+
+        return best;
     }
 
     /**
-     * Determines the next move for the robot and executes it accordingly.
+     * Returns the number of unexplored cells within VIEW_RADIUS of [row, col].
      */
-    private void nextMove() {
-        if (lookRight()) {
-            moveBot(MOVEMENT.RIGHT);
-            if (lookForward()) moveBot(MOVEMENT.FORWARD);
-        } else if (lookForward()) {
-            moveBot(MOVEMENT.FORWARD);
-        } else if (lookLeft()) {
-            moveBot(MOVEMENT.LEFT);
-            if (lookForward()) moveBot(MOVEMENT.FORWARD);
-        } else {
-            moveBot(MOVEMENT.RIGHT);
-            moveBot(MOVEMENT.RIGHT);
+    int getInformationGain(int row, int col) {
+        int gain = 0;
+        for (int r = Math.max(0, row - VIEW_RADIUS); r <= Math.min(MapConstants.MAP_ROWS - 1, row + VIEW_RADIUS); r++) {
+            for (int c = Math.max(0, col - VIEW_RADIUS); c <= Math.min(MapConstants.MAP_COLS - 1, col + VIEW_RADIUS); c++) {
+                if (!exploredMap.getCell(r, c).getIsExplored()) gain++;
+            }
         }
+        return gain;
     }
 
     /**
      * Returns true if the right side of the robot is free to move into.
      */
-    private boolean lookRight() {
-        switch (bot.getRobotCurDir()) {
-            case NORTH:
-                return eastFree();
-            case EAST:
-                return southFree();
-            case SOUTH:
-                return westFree();
-            case WEST:
-                return northFree();
-        }
-        return false;
+    boolean lookRight() {
+        return isFree(bot.getRobotPosRow(), bot.getRobotPosCol(), DIRECTION.getNext(bot.getRobotCurDir()));
     }
 
     /**
      * Returns true if the robot is free to move forward.
      */
-    private boolean lookForward() {
-        switch (bot.getRobotCurDir()) {
-            case NORTH:
-                return northFree();
-            case EAST:
-                return eastFree();
-            case SOUTH:
-                return southFree();
-            case WEST:
-                return westFree();
-        }
-        return false;
+    boolean lookForward() {
+        return isFree(bot.getRobotPosRow(), bot.getRobotPosCol(), bot.getRobotCurDir());
     }
 
     /**
      * * Returns true if the left side of the robot is free to move into.
      */
-    private boolean lookLeft() {
-        switch (bot.getRobotCurDir()) {
+    boolean lookLeft() {
+        return isFree(bot.getRobotPosRow(), bot.getRobotPosCol(), DIRECTION.getPrevious(bot.getRobotCurDir()));
+    }
+
+    /**
+     * Returns true if a robot centered at [botRow, botCol] can move one cell in the given direction.
+     */
+    boolean isFree(int botRow, int botCol, DIRECTION dir) {
+        switch (dir) {
             case NORTH:
-                return westFree();
+                return northFree(botRow, botCol);
             case EAST:
-                return northFree();
+                return eastFree(botRow, botCol);
             case SOUTH:
-                return eastFree();
+                return southFree(botRow, botCol);
             case WEST:
-                return southFree();
+                return westFree(botRow, botCol);
         }
         return false;
     }
@@ -176,39 +374,79 @@ public class ExplorationAlgo {
     /**
      * Returns true if the robot can move to the north cell.
      */
-    private boolean northFree() {
-        int botRow = bot.getRobotPosRow();
-        int botCol = bot.getRobotPosCol();
+    private boolean northFree(int botRow, int botCol) {
         return (isExploredNotObstacle(botRow + 1, botCol - 1) && isExploredAndFree(botRow + 1, botCol) && isExploredNotObstacle(botRow + 1, botCol + 1));
     }
 
     /**
      * Returns true if the robot can move to the east cell.
      */
-    private boolean eastFree() {
-        int botRow = bot.getRobotPosRow();
-        int botCol = bot.getRobotPosCol();
+    private boolean eastFree(int botRow, int botCol) {
         return (isExploredNotObstacle(botRow - 1, botCol + 1) && isExploredAndFree(botRow, botCol + 1) && isExploredNotObstacle(botRow + 1, botCol + 1));
     }
 
     /**
      * Returns true if the robot can move to the south cell.
      */
-    private boolean southFree() {
-        int botRow = bot.getRobotPosRow();
-        int botCol = bot.getRobotPosCol();
+    private boolean southFree(int botRow, int botCol) {
         return (isExploredNotObstacle(botRow - 1, botCol - 1) && isExploredAndFree(botRow - 1, botCol) && isExploredNotObstacle(botRow - 1, botCol + 1));
     }
 
     /**
      * Returns true if the robot can move to the west cell.
      */
-    private boolean westFree() {
-        int botRow = bot.getRobotPosRow();
-        int botCol = bot.getRobotPosCol();
+    private boolean westFree(int botRow, int botCol) {
         return (isExploredNotObstacle(botRow - 1, botCol - 1) && isExploredAndFree(botRow, botCol - 1) && isExploredNotObstacle(botRow + 1, botCol - 1));
     }
 
+    /**
+     * Returns how many cells, up to maxCells, the robot can move forward in one go. Every cell but the last must be
+     * known to be free ahead, and sensing there must not be able to reveal anything new, so only the last one is
+     * sensed. If followWall is set, the run also stops where the right-hand rule would turn right.
+     */
+    int getForwardRun(int maxCells, boolean followWall) {
+        DIRECTION dir = bot.getRobotCurDir();
+        int dRow = dir.getRowStep(), dCol = dir.getColStep();
+
+        views.takeSnapshot();
+        int count = 1;
+        int row = bot.getRobotPosRow() + dRow, col = bot.getRobotPosCol() + dCol;
+        while (count < Math.min(maxCells, MAX_FORWARD_RUN)) {
+            if (views.getGain(row, col, dir) > 0) break;
+            if (followWall && isFree(row, col, DIRECTION.getNext(dir))) break;
+            if (!isFree(row, col, dir)) break;
+
+            count++;
+            row += dRow;
+            col += dCol;
+        }
+        return count;
+    }
+
+    /**
+     * Returns true once the time left is just enough to get back to START: the estimated way home from the current
+     * pose plus a safety margin.
+     */
+    boolean isTimeToGoHome() {
+        return bot.getClock().currentTimeMillis() + getHomeCost() + getHomeMargin() >= endTime;
+    }
+
+    /**
+     * Returns the estimated time (ms) to get from the current pose back to START.
+     */
+    private double getHomeCost() {
+        double cost = home.getCost(bot.getRobotPosRow(), bot.getRobotPosCol(), bot.getRobotCurDir());
+        return cost == Double.MAX_VALUE ? 0 : cost;
+    }
+
+    /**
+     * Returns the time (ms) kept spare for what the estimate leaves out: turning north at START and any detour forced
+     * by obstacles found on the way.
+     */
+    private long getHomeMargin() {
+        return Math.round(HOME_MARGIN * getHomeCost() + 2 * bot.getDurationModel().getTurn());
+    }
+
     /**
      * Returns the robot to START after exploration and points the bot northwards.
      */
@@ -221,11 +459,16 @@ public class ExplorationAlgo {
         FastestPathAlgo returnToStart = new FastestPathAlgo(exploredMap, bot, realMap);
         returnToStart.runFastestPath(RobotConstants.START_ROW, RobotConstants.START_COL);
 
-        System.out.println("Exploration complete!");
         areaExplored = calculateAreaExplored();
-        System.out.printf("%.2f%% Coverage", (areaExplored / 300.0) * 100.0);
-        System.out.println(", " + areaExplored + " Cells");
-        System.out.println((System.currentTimeMillis() - startTime) / 1000 + " Seconds");
+        if (bot.isVerbose()) {
+            System.out.println("Exploration complete!");
+            System.out.printf("%.2f%% Coverage", (areaExplored / 300.0) * 100.0);
+            System.out.println(", " + areaExplored + " Cells");
+            System.out.println((bot.getClock().currentTimeMillis() - startTime) / 1000 + " Seconds");
+            if (loopsDetected > 0) System.out.println("Loops detected: " + loopsDetected + ", escapes: " + escapes);
+            if (bot.getRealBot()) System.out.println("Calibrations: " + calibration.getCalibrations() + ", extra turns for calibration: " + calibration.getExtraTurns());
+            if (bot.getRealBot()) System.out.println(comm.getMetrics().report());
+        }
 
         if (bot.getRealBot()) {
             turnBotDirection(DIRECTION.WEST);
@@ -278,37 +521,86 @@ public class ExplorationAlgo {
     /**
      * Moves the bot, repaints the map and calls senseAndRepaint().
      */
-    private void moveBot(MOVEMENT m) {
+    void moveBot(MOVEMENT m) {
         bot.move(m);
+        afterMove(m, 1);
+    }
+
+    /**
+     * Moves the bot count cells forward as a single movement, then senses once (see getForwardRun()).
+     */
+    void moveBotForward(int count) {
+        if (count == 1) {
+            moveBot(MOVEMENT.FORWARD);
+        } else {
+            bot.moveForwardMultiple(count);
+            afterMove(MOVEMENT.FORWARD, count);
+        }
+    }
+
+    /**
+     * Repaints the map, senses and calibrates if needed (see CalibrationScheduler) after count consecutive executions
+     * of a movement.
+     */
+    private void afterMove(MOVEMENT m, int count) {
         exploredMap.repaint();
         if (m != MOVEMENT.CALIBRATE) {
             senseAndRepaint();
-        } else {
-            CommMgr commMgr = CommMgr.getCommMgr();
-            commMgr.recvMsg();
+            areaExplored = calculateAreaExplored();
+            if (frontier != null) frontier.update(bot.getRobotPosRow(), bot.getRobotPosCol());
+            if (home != null) home.update();
+        } else if (comm != null) {
+            comm.recvMsg();
         }
 
+        calibration.onMove(m, count);
         if (bot.getRealBot() && !calibrationMode) {
             calibrationMode = true;
 
-            if (canCalibrateOnTheSpot(bot.getRobotCurDir())) {
-                lastCalibrate = 0;
+            if (calibration.wantsCalibration() && canCalibrateOnTheSpot(bot.getRobotCurDir())) {
                 moveBot(MOVEMENT.CALIBRATE);
-            } else {
-                lastCalibrate++;
-                if (lastCalibrate >= 5) {
-                    DIRECTION targetDir = getCalibrationDirection();
-                    if (targetDir != null) {
-                        lastCalibrate = 0;
-                        calibrateBot(targetDir);
-                    }
-                }
+            } else if (calibration.needsCalibration(isCalibrationAhead())) {
+                DIRECTION targetDir = getCalibrationDirection();
+                if (targetDir != null) calibrateBot(targetDir);
             }
 
             calibrationMode = false;
         }
     }
 
+    /**
+     * Returns true if the rest of the path being followed passes a pose facing a wall before the drift budget runs
+     * out, so that a calibration can wait until then. Without a path, i.e. while following the wall, the robot's
+     * next forward run (see getForwardRun()) is taken as the path.
+     */
+    private boolean isCalibrationAhead() {
+        List<MOVEMENT> ahead = upcoming;
+        if (ahead == null) {
+            if (!lookForward()) return false;
+            ahead = Collections.nCopies(getForwardRun(MAX_FORWARD_RUN, true), MOVEMENT.FORWARD);
+        }
+
+        int row = bot.getRobotPosRow(), col = bot.getRobotPosCol();
+        DIRECTION dir = bot.getRobotCurDir();
+        double budget = calibration.getDriftBudget();
+        for (MOVEMENT m : ahead) {
+            budget -= CalibrationScheduler.getDrift(m, 1);
+            if (budget < 0) return false;
+
+            if (m == MOVEMENT.RIGHT) {
+                dir = DIRECTION.getNext(dir);
+            } else if (m == MOVEMENT.LEFT) {
+                dir = DIRECTION.getPrevious(dir);
+            } else if (m == MOVEMENT.FORWARD || m == MOVEMENT.BACKWARD) {
+                int sign = m == MOVEMENT.FORWARD ? 1 : -1;
+                row += sign * dir.getRowStep();
+                col += sign * dir.getColStep();
+            }
+            if (canCalibrateAt(row, col, dir)) return true;
+        }
+        return false;
+    }
+
     /**
      * Sets the bot's sensors, processes the sensor data and repaints the map.
      */
@@ -322,9 +614,13 @@ public class ExplorationAlgo {
      * Checks if the robot can calibrate at its current position given a direction.
      */
     private boolean canCalibrateOnTheSpot(DIRECTION botDir) {
-        int row = bot.getRobotPosRow();
-        int col = bot.getRobotPosCol();
+        return canCalibrateAt(bot.getRobotPosRow(), bot.getRobotPosCol(), botDir);
+    }
 
+    /**
+     * Checks if a robot centered at [row, col] can calibrate facing the given direction.
+     */
+    private boolean canCalibrateAt(int row, int col, DIRECTION botDir) {
         switch (botDir) {
             case NORTH:
                 return exploredMap.getIsObstacleOrWall(row + 2, col - 1) && exploredMap.getIsObstacleOrWall(row + 2, col) && exploredMap.getIsObstacleOrWall(row + 2, col + 1);
@@ -364,6 +660,7 @@ public class ExplorationAlgo {
      */
     private void calibrateBot(DIRECTION targetDir) {
         DIRECTION origDir = bot.getRobotCurDir();
+        calibration.onExtraTurns(2 * getNumOfTurns(origDir, targetDir));
 
         turnBotDirection(targetDir);
         moveBot(MOVEMENT.CALIBRATE);
@@ -373,9 +670,8 @@ public class ExplorationAlgo {
     /**
      * Turns the robot to the required direction.
      */
-    private void turnBotDirection(DIRECTION targetDir) {
-        int numOfTurn = Math.abs(bot.getRobotCurDir().ordinal() - targetDir.ordinal());
-        if (numOfTurn > 2) numOfTurn = numOfTurn % 2;
+    void turnBotDirection(DIRECTION targetDir) {
+        int numOfTurn = getNumOfTurns(bot.getRobotCurDir(), targetDir);
 
         if (numOfTurn == 1) {
             if (DIRECTION.getNext(bot.getRobotCurDir()) == targetDir) {
@@ -388,4 +684,13 @@ public class ExplorationAlgo {
             moveBot(MOVEMENT.RIGHT);
         }
     }
+
+    /**
+     * Returns the number of 90 degree turns from one direction to another.
+     */
+    private static int getNumOfTurns(DIRECTION a, DIRECTION b) {
+        int numOfTurn = Math.abs(a.ordinal() - b.ordinal());
+        if (numOfTurn > 2) numOfTurn = numOfTurn % 2;
+        return numOfTurn;
+    }
 }
@@ -0,0 +1,63 @@
+package algorithms;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the exploration strategies, by name. Comes with
+ *
+ * right-hand   RightHandRuleStrategy (default)
+ * frontier     FrontierStrategy
+ * nbv          NextBestViewStrategy
+ *
+ * The simulator picks one with -Dmdp.exploration=<name>.
+ */
+
+public class ExplorationStrategies {
+    public static final String DEFAULT = RightHandRuleStrategy.NAME;
+
+    private static final java.util.Map<String, Supplier<? extends ExplorationStrategy>> factories = new LinkedHashMap<>();
+
+    static {
+        register(RightHandRuleStrategy.NAME, RightHandRuleStrategy::new);
+        register(FrontierStrategy.NAME, FrontierStrategy::new);
+        register(NextBestViewStrategy.NAME, NextBestViewStrategy::new);
+    }
+
+    /**
+     * Adds a strategy, or replaces the one registered under the same name.
+     */
+    public static synchronized void register(String name, Supplier<? extends ExplorationStrategy> factory) {
+        factories.put(name.toLowerCase(), factory);
+    }
+
+    /**
+     * Returns a new instance of the named strategy (case-insensitive), or null if there is none by that name.
+     */
+    public static synchronized ExplorationStrategy create(String name) {
+        Supplier<? extends ExplorationStrategy> factory = factories.get(name.toLowerCase());
+        return factory == null ? null : factory.get();
+    }
+
+    /**
+     * Returns the names of all registered strategies, in the order they were registered.
+     */
+    public static synchronized List<String> getNames() {
+        return new ArrayList<>(factories.keySet());
+    }
+
+    /**
+     * Returns the strategy given by -Dmdp.exploration, or the default one if none is given or it is unknown.
+     */
+    public static ExplorationStrategy createConfigured() {
+        String name = System.getProperty("mdp.exploration", DEFAULT);
+        ExplorationStrategy strategy = create(name);
+        if (strategy == null) {
+            System.out.println("Unknown exploration strategy " + name + ", using " + DEFAULT + " (one of " + getNames() + ")");
+            strategy = create(DEFAULT);
+        }
+        return strategy;
+    }
+}
@@ -0,0 +1,36 @@
+package algorithms;
+
+/**
+ * Decides where the robot goes next during exploration.
+ *
+ * ExplorationAlgo calls step() until it returns false, more than the coverage limit is explored or it is time to head
+ * back to START (see ExplorationAlgo.isTimeToGoHome()), then calls finish() and brings the robot home. A step reads
+ * the explored map, the robot's pose and the time left from the ExplorationAlgo it is given and moves the robot
+ * through it, so that sensing, calibration and the time budget are handled the same way for every strategy.
+ *
+ * Strategies keep state between steps, so every run needs its own instance (see ExplorationStrategies.create()).
+ */
+
+public interface ExplorationStrategy {
+    /**
+     * Returns the name the strategy is registered under.
+     */
+    String getName();
+
+    /**
+     * Called once the robot has sensed at START, before the first step.
+     */
+    default void start(ExplorationAlgo explorer) {
+    }
+
+    /**
+     * Executes the next action(s). Returns false when the strategy has nothing left to explore.
+     */
+    boolean step(ExplorationAlgo explorer);
+
+    /**
+     * Called after the last step, before the robot returns to START.
+     */
+    default void finish(ExplorationAlgo explorer) {
+    }
+}
@@ -3,13 +3,16 @@ package algorithms;
 import map.Cell;
 import map.Map;
 import map.MapConstants;
+import robot.MovementTimingModel;
 import robot.Robot;
 import robot.RobotConstants;
 import robot.RobotConstants.DIRECTION;
 import robot.RobotConstants.MOVEMENT;
+import robot.RouteCompiler;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Stack;
 
 // @formatter:off
@@ -18,6 +21,14 @@ import java.util.Stack;
  *
  * g(n) = Real Cost from START to n
  * h(n) = Heuristic Cost from n to GOAL
+ *
+ * Costs are estimated times (ms) from the bot's MovementTimingModel. Consecutive forward moves are executed as one
+ * run, so each cell costs forwardPerCell and the fixed forwardBase is charged whenever a run starts after a turn
+ * or a reverse.
+ *
+ * The cell straight behind the robot can also be reached by reversing into it, which costs backward and keeps the
+ * heading. The search keeps whichever of that and turning around is cheaper, and remembers for every cell the
+ * heading the robot arrives with and whether it reversed into it.
  */
 // @formatter:on
 
@@ -28,12 +39,16 @@ public class FastestPathAlgo {
     private Cell current;                   // current Cell
     private Cell[] neighbors;               // array of neighbors of current Cell
     private DIRECTION curDir;               // current direction of robot
+    private DIRECTION[][] headings;         // direction of robot on arriving at [row][col]
+    private boolean[][] reversed;           // true if the robot reverses into [row][col]
     private double[][] gCosts;              // array of real cost from START to [row][col] i.e. g(n)
     private Robot bot;
     private Map exploredMap;
+    private MovementTimingModel timing;
     private final Map realMap;
     private int loopCount;
     private boolean explorationMode;
+    private boolean segmentMode = "segment".equals(System.getProperty("mdp.planner"));
 
     public FastestPathAlgo(Map exploredMap, Robot bot) {
         this.realMap = null;
@@ -52,6 +67,7 @@ public class FastestPathAlgo {
     private void initObject(Map map, Robot bot) {
         this.bot = bot;
         this.exploredMap = map;
+        this.timing = bot.getTimingModel();
         this.toVisit = new ArrayList<>();
         this.visited = new ArrayList<>();
         this.parents = new HashMap<>();
@@ -59,6 +75,8 @@ public class FastestPathAlgo {
         this.current = map.getCell(bot.getRobotPosRow(), bot.getRobotPosCol());
         this.curDir = bot.getRobotCurDir();
         this.gCosts = new double[MapConstants.MAP_ROWS][MapConstants.MAP_COLS];
+        this.headings = new DIRECTION[MapConstants.MAP_ROWS][MapConstants.MAP_COLS];
+        this.reversed = new boolean[MapConstants.MAP_ROWS][MapConstants.MAP_COLS];
 
         // Initialise gCosts array
         for (int i = 0; i < MapConstants.MAP_ROWS; i++) {
@@ -75,9 +93,18 @@ public class FastestPathAlgo {
 
         // Initialise starting point
         gCosts[bot.getRobotPosRow()][bot.getRobotPosCol()] = 0;
+        headings[bot.getRobotPosRow()][bot.getRobotPosCol()] = bot.getRobotCurDir();
         this.loopCount = 0;
     }
 
+    /**
+     * Plans over whole straight segments (see SegmentPlanner) instead of single cells. Defaults to true if
+     * -Dmdp.planner=segment is given.
+     */
+    public void setSegmentMode(boolean segmentMode) {
+        this.segmentMode = segmentMode;
+    }
+
     /**
      * Returns true if the cell can be visited.
      */
@@ -90,7 +117,7 @@ public class FastestPathAlgo {
      */
     private Cell minimumCostCell(int goalRow, int getCol) {
         int size = toVisit.size();
-        double minCost = RobotConstants.INFINITE_COST;
+        double minCost = Double.MAX_VALUE;
         Cell result = null;
 
         for (int i = size - 1; i >= 0; i--) {
@@ -109,15 +136,16 @@ public class FastestPathAlgo {
      * Returns the heuristic cost i.e. h(n) from a given Cell to a given [goalRow, goalCol] in the maze.
      */
     private double costH(Cell b, int goalRow, int goalCol) {
-        // Heuristic: The no. of moves will be equal to the difference in the row and column values.
-        double movementCost = (Math.abs(goalCol - b.getCol()) + Math.abs(goalRow - b.getRow())) * RobotConstants.MOVE_COST;
+        // Heuristic: The no. of moves will be equal to the difference in the row and column values. Each may be a
+        // reverse, so charge the cheaper of the two to keep h(n) admissible.
+        double movementCost = (Math.abs(goalCol - b.getCol()) + Math.abs(goalRow - b.getRow())) * Math.min(timing.getForwardPerCell(), timing.getBackward());
 
         if (movementCost == 0) return 0;
 
-        // Heuristic: If b is not in the same row or column, one turn will be needed.
+        // Heuristic: If b is not in the same row or column, one turn (and a new run) will be needed.
         double turnCost = 0;
-        if (goalCol - b.getCol() != 0 || goalRow - b.getRow() != 0) {
-            turnCost = RobotConstants.TURN_COST;
+        if (goalCol - b.getCol() != 0 && goalRow - b.getRow() != 0) {
+            turnCost = timing.getTurn() + timing.getForwardBase();
         }
 
         return movementCost + turnCost;
@@ -150,27 +178,57 @@ public class FastestPathAlgo {
         if (numOfTurn > 2) {
             numOfTurn = numOfTurn % 2;
         }
-        return (numOfTurn * RobotConstants.TURN_COST);
+        return (numOfTurn * timing.getTurn());
     }
 
     /**
-     * Calculate the actual cost of moving from Cell a to Cell b (assuming both are neighbors).
+     * Calculate the actual cost of moving forward from Cell a to Cell b (assuming both are neighbors).
      */
     private double costG(Cell a, Cell b, DIRECTION aDir) {
-        double moveCost = RobotConstants.MOVE_COST; // one movement to neighbor
+        double moveCost = timing.getForwardPerCell(); // one movement to neighbor
 
         double turnCost;
         DIRECTION targetDir = getTargetDir(a.getRow(), a.getCol(), aDir, b);
         turnCost = getTurnCost(aDir, targetDir);
+        if (turnCost > 0 || reversed[a.getRow()][a.getCol()]) turnCost += timing.getForwardBase();    // a new run starts
 
         return moveCost + turnCost;
     }
 
     /**
-     * Find the fastest path from the robot's current position to [goalRow, goalCol].
+     * Returns true if Cell b is straight behind the robot at Cell a with heading aDir.
+     */
+    private boolean isBehind(Cell a, Cell b, DIRECTION aDir) {
+        return b.getRow() == a.getRow() - aDir.getRowStep() && b.getCol() == a.getCol() - aDir.getColStep();
+    }
+
+    /**
+     * Finds the fastest path from the robot's current position to [goalRow, goalCol] and executes it.
      */
     public String runFastestPath(int goalRow, int goalCol) {
-        System.out.println("Calculating fastest path from (" + current.getRow() + ", " + current.getCol() + ") to goal (" + goalRow + ", " + goalCol + ")...");
+        List<MOVEMENT> movements = planPath(goalRow, goalCol);
+        if (movements == null) return null;
+
+        return executeMovements(movements);
+    }
+
+    /**
+     * Finds the fastest path from the robot's current position to [goalRow, goalCol] without executing it. Returns
+     * the movements, or null if there is no path.
+     */
+    public List<MOVEMENT> planPath(int goalRow, int goalCol) {
+        if (bot.isVerbose()) System.out.println("Calculating fastest path from (" + current.getRow() + ", " + current.getCol() + ") to goal (" + goalRow + ", " + goalCol + ")...");
+
+        if (segmentMode) {
+            SegmentPlanner planner = new SegmentPlanner(exploredMap, timing);
+            List<MOVEMENT> movements = planner.plan(bot.getRobotPosRow(), bot.getRobotPosCol(), bot.getRobotCurDir(), goalRow, goalCol);
+            if (movements == null) {
+                if (bot.isVerbose()) System.out.println("Path not found!");
+                return null;
+            }
+            if (bot.isVerbose()) System.out.println("Goal visited. Path found after expanding " + planner.getExpanded() + " states!");
+            return movements;
+        }
 
         Stack<Cell> path;
         do {
@@ -179,19 +237,17 @@ public class FastestPathAlgo {
             // Get cell with minimum cost from toVisit and assign it to current.
             current = minimumCostCell(goalRow, goalCol);
 
-            // Point the robot in the direction of current from the previous cell.
-            if (parents.containsKey(current)) {
-                curDir = getTargetDir(parents.get(current).getRow(), parents.get(current).getCol(), curDir, current);
-            }
+            // Point the robot in the direction it arrives at current with.
+            curDir = headings[current.getRow()][current.getCol()];
 
             visited.add(current);       // add current to visited
             toVisit.remove(current);    // remove current from toVisit
 
             if (visited.contains(exploredMap.getCell(goalRow, goalCol))) {
-                System.out.println("Goal visited. Path found!");
+                if (bot.isVerbose()) System.out.println("Goal visited. Path found!");
                 path = getPath(goalRow, goalCol);
-                printFastestPath(path);
-                return executePath(path, goalRow, goalCol);
+                if (bot.isVerbose()) printFastestPath(path);
+                return getMovements(path, goalRow, goalCol);
             }
 
             // Setup neighbors of current cell. [Top, Bottom, Left, Right].
@@ -227,23 +283,32 @@ public class FastestPathAlgo {
                         continue;
                     }
 
-                    if (!(toVisit.contains(neighbors[i]))) {
-                        parents.put(neighbors[i], current);
-                        gCosts[neighbors[i].getRow()][neighbors[i].getCol()] = gCosts[current.getRow()][current.getCol()] + costG(current, neighbors[i], curDir);
-                        toVisit.add(neighbors[i]);
-                    } else {
-                        double currentGScore = gCosts[neighbors[i].getRow()][neighbors[i].getCol()];
-                        double newGScore = gCosts[current.getRow()][current.getCol()] + costG(current, neighbors[i], curDir);
-                        if (newGScore < currentGScore) {
-                            gCosts[neighbors[i].getRow()][neighbors[i].getCol()] = newGScore;
-                            parents.put(neighbors[i], current);
+                    // Move forward (turning first if needed), or reverse if the neighbor is behind and that is cheaper.
+                    double newGScore = gCosts[current.getRow()][current.getCol()] + costG(current, neighbors[i], curDir);
+                    DIRECTION newDir = getTargetDir(current.getRow(), current.getCol(), curDir, neighbors[i]);
+                    boolean reverse = false;
+                    if (isBehind(current, neighbors[i], curDir)) {
+                        double reverseGScore = gCosts[current.getRow()][current.getCol()] + timing.getBackward();
+                        if (reverseGScore < newGScore) {
+                            newGScore = reverseGScore;
+                            newDir = curDir;
+                            reverse = true;
                         }
                     }
+
+                    boolean isNew = !(toVisit.contains(neighbors[i]));
+                    if (isNew || newGScore < gCosts[neighbors[i].getRow()][neighbors[i].getCol()]) {
+                        parents.put(neighbors[i], current);
+                        gCosts[neighbors[i].getRow()][neighbors[i].getCol()] = newGScore;
+                        headings[neighbors[i].getRow()][neighbors[i].getCol()] = newDir;
+                        reversed[neighbors[i].getRow()][neighbors[i].getCol()] = reverse;
+                        if (isNew) toVisit.add(neighbors[i]);
+                    }
                 }
             }
         } while (!toVisit.isEmpty());
 
-        System.out.println("Path not found!");
+        if (bot.isVerbose()) System.out.println("Path not found!");
         return null;
     }
 
@@ -266,18 +331,19 @@ public class FastestPathAlgo {
     }
 
     /**
-     * Executes the fastest path and returns a StringBuilder object with the path steps.
+     * Converts a path of cells into the movements that follow it from the bot's current pose.
      */
-    private String executePath(Stack<Cell> path, int goalRow, int goalCol) {
-        StringBuilder outputString = new StringBuilder();
-
+    private List<MOVEMENT> getMovements(Stack<Cell> path, int goalRow, int goalCol) {
         Cell temp = path.pop();
         DIRECTION targetDir;
 
-        ArrayList<MOVEMENT> movements = new ArrayList<>();
+        List<MOVEMENT> movements = new ArrayList<>();
 
-        Robot tempBot = new Robot(1, 1, false);
+        Robot tempBot = new Robot(bot.getRobotPosRow(), bot.getRobotPosCol(), false);
+        tempBot.setRobotDir(bot.getRobotCurDir());
         tempBot.setSpeed(0);
+        tempBot.setVerbose(false);
+
         while ((tempBot.getRobotPosRow() != goalRow) || (tempBot.getRobotPosCol() != goalCol)) {
             if (tempBot.getRobotPosRow() == temp.getRow() && tempBot.getRobotPosCol() == temp.getCol()) {
                 temp = path.pop();
@@ -286,26 +352,37 @@ public class FastestPathAlgo {
             targetDir = getTargetDir(tempBot.getRobotPosRow(), tempBot.getRobotPosCol(), tempBot.getRobotCurDir(), temp);
 
             MOVEMENT m;
-            if (tempBot.getRobotCurDir() != targetDir) {
+            if (reversed[temp.getRow()][temp.getCol()]) {
+                m = MOVEMENT.BACKWARD;      // the search reversed into temp, keeping the heading
+            } else if (tempBot.getRobotCurDir() != targetDir) {
                 m = getTargetMove(tempBot.getRobotCurDir(), targetDir);
             } else {
                 m = MOVEMENT.FORWARD;
             }
 
-            System.out.println("Movement " + MOVEMENT.print(m) + " from (" + tempBot.getRobotPosRow() + ", " + tempBot.getRobotPosCol() + ") to (" + temp.getRow() + ", " + temp.getCol() + ")");
+            if (bot.isVerbose()) System.out.println("Movement " + MOVEMENT.print(m) + " from (" + tempBot.getRobotPosRow() + ", " + tempBot.getRobotPosCol() + ") to (" + temp.getRow() + ", " + temp.getCol() + ")");
 
             tempBot.move(m);
             movements.add(m);
+        }
+
+        return movements;
+    }
+
+    /**
+     * Executes the movements (see planPath()) and returns a String with the path steps.
+     */
+    public String executeMovements(List<MOVEMENT> movements) {
+        StringBuilder outputString = new StringBuilder();
+        for (MOVEMENT m : movements) {
             outputString.append(MOVEMENT.print(m));
         }
 
         if (!bot.getRealBot() || explorationMode) {
             for (MOVEMENT x : movements) {
-                if (x == MOVEMENT.FORWARD) {
-                    if (!canMoveForward()) {
-                        System.out.println("Early termination of fastest path execution.");
-                        return "T";
-                    }
+                if ((x == MOVEMENT.FORWARD && !canMoveForward()) || (x == MOVEMENT.BACKWARD && !canMoveBackward())) {
+                    if (bot.isVerbose()) System.out.println("Early termination of fastest path execution.");
+                    return "T";
                 }
 
                 bot.move(x);
@@ -319,34 +396,12 @@ public class FastestPathAlgo {
                 }
             }
         } else {
-            int fCount = 0;
-            for (MOVEMENT x : movements) {
-                if (x == MOVEMENT.FORWARD) {
-                    fCount++;
-                    if (fCount == 10) {
-                        bot.moveForwardMultiple(fCount);
-                        fCount = 0;
-                        exploredMap.repaint();
-                    }
-                } else if (x == MOVEMENT.RIGHT || x == MOVEMENT.LEFT) {
-                    if (fCount > 0) {
-                        bot.moveForwardMultiple(fCount);
-                        fCount = 0;
-                        exploredMap.repaint();
-                    }
-
-                    bot.move(x);
-                    exploredMap.repaint();
-                }
-            }
-
-            if (fCount > 0) {
-                bot.moveForwardMultiple(fCount);
-                exploredMap.repaint();
-            }
+            // Send the whole route in one go so that the robot never stalls between segments.
+            bot.executeRoute(RouteCompiler.compile(movements));
+            exploredMap.repaint();
         }
 
-        System.out.println("\nMovements: " + outputString.toString());
+        if (bot.isVerbose()) System.out.println("\nMovements: " + outputString.toString());
         return outputString.toString();
     }
 
@@ -383,6 +438,23 @@ public class FastestPathAlgo {
         return false;
     }
 
+    /**
+     * Returns true if the robot can move backward one cell with the current heading.
+     */
+    private boolean canMoveBackward() {
+        DIRECTION dir = bot.getRobotCurDir();
+        int row = bot.getRobotPosRow() - 2 * dir.getRowStep();
+        int col = bot.getRobotPosCol() - 2 * dir.getColStep();
+
+        // The three cells across the robot's rear edge
+        for (int i = -1; i <= 1; i++) {
+            int r = row + i * dir.getColStep(), c = col + i * dir.getRowStep();
+            if (!exploredMap.checkValidCoordinates(r, c) || exploredMap.isObstacleCell(r, c)) return false;
+        }
+
+        return true;
+    }
+
     /**
      * Returns the movement to execute to get from one direction to another.
      */
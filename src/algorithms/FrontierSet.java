@@ -0,0 +1,84 @@
+package algorithms;
+
+import map.Cell;
+import map.Map;
+import map.MapConstants;
+
+/**
+ * Frontier of the exploration: the unexplored cells that border an explored, obstacle-free cell.
+ *
+ * Sensing only changes cells near the robot, so after each move only a window around the robot is re-evaluated
+ * instead of the whole map.
+ */
+
+public class FrontierSet {
+    public static final int SENSOR_REACH = 6;   // max distance from the robot's center at which sensing changes a cell, plus one
+
+    private final Map map;
+    private final boolean[][] frontier = new boolean[MapConstants.MAP_ROWS][MapConstants.MAP_COLS];
+    private int size;
+
+    public FrontierSet(Map map) {
+        this.map = map;
+        update(0, 0, Math.max(MapConstants.MAP_ROWS, MapConstants.MAP_COLS));
+    }
+
+    /**
+     * Re-evaluates the frontier around the robot's position after it has sensed.
+     */
+    public void update(int row, int col) {
+        update(row, col, SENSOR_REACH);
+    }
+
+    /**
+     * Re-evaluates all cells within the given (Chebyshev) radius of [row, col].
+     */
+    public void update(int row, int col, int radius) {
+        int rowMin = Math.max(0, row - radius), rowMax = Math.min(MapConstants.MAP_ROWS - 1, row + radius);
+        int colMin = Math.max(0, col - radius), colMax = Math.min(MapConstants.MAP_COLS - 1, col + radius);
+
+        for (int r = rowMin; r <= rowMax; r++) {
+            for (int c = colMin; c <= colMax; c++) {
+                boolean isFrontier = computeFrontier(r, c);
+                if (isFrontier != frontier[r][c]) {
+                    frontier[r][c] = isFrontier;
+                    size += isFrontier ? 1 : -1;
+                }
+            }
+        }
+    }
+
+    private boolean computeFrontier(int row, int col) {
+        if (map.getCell(row, col).getIsExplored()) return false;
+        return isExploredFree(row + 1, col) || isExploredFree(row - 1, col) || isExploredFree(row, col + 1) || isExploredFree(row, col - 1);
+    }
+
+    private boolean isExploredFree(int row, int col) {
+        if (!map.checkValidCoordinates(row, col)) return false;
+        Cell cell = map.getCell(row, col);
+        return cell.getIsExplored() && !cell.getIsObstacle();
+    }
+
+    public boolean isFrontier(int row, int col) {
+        return map.checkValidCoordinates(row, col) && frontier[row][col];
+    }
+
+    /**
+     * Returns the number of frontier cells.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if there is a frontier cell within the given (Chebyshev) radius of [row, col].
+     */
+    public boolean isNear(int row, int col, int radius) {
+        for (int r = Math.max(0, row - radius); r <= Math.min(MapConstants.MAP_ROWS - 1, row + radius); r++) {
+            for (int c = Math.max(0, col - radius); c <= Math.min(MapConstants.MAP_COLS - 1, col + radius); c++) {
+                if (frontier[r][c]) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,40 @@
+package algorithms;
+
+import map.MapConstants;
+import robot.RobotConstants.MOVEMENT;
+
+import java.util.List;
+
+/**
+ * Frontier-based exploration. Repeatedly picks the reachable pose with the best information gain per unit of travel
+ * cost (see ExplorationAlgo.chooseFrontierTarget()), plans a path to it with FastestPathAlgo and follows it until
+ * there is nothing left to see there.
+ */
+
+public class FrontierStrategy implements ExplorationStrategy {
+    public static final String NAME = "frontier";
+
+    private final boolean[][] done = new boolean[MapConstants.MAP_ROWS][MapConstants.MAP_COLS];    // targets reached or unreachable
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Drives towards the next target. Stops once no frontier is left that can be reached.
+     */
+    @Override
+    public boolean step(ExplorationAlgo explorer) {
+        int[] target = explorer.chooseFrontierTarget(explorer.getFrontier(), done, false);
+        if (target == null) return false;
+
+        List<MOVEMENT> movements = new FastestPathAlgo(explorer.getExploredMap(), explorer.getBot()).planPath(target[0], target[1]);
+        long poseBefore = explorer.getPoseKey();
+        // Replan once there is nothing left to see at the target.
+        if (movements == null || explorer.followPath(movements, () -> explorer.getInformationGain(target[0], target[1]) > 0) || explorer.getPoseKey() == poseBefore) {
+            done[target[0]][target[1]] = true;
+        }
+        return true;
+    }
+}
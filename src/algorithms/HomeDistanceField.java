@@ -0,0 +1,149 @@
+package algorithms;
+
+import map.Cell;
+import map.Map;
+import map.MapConstants;
+import robot.MovementTimingModel;
+import robot.RobotConstants;
+import robot.RobotConstants.DIRECTION;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Time (ms) to get back to START from every (cell, heading) over the explored free cells, kept up to date while the
+ * map is explored.
+ *
+ * Exploring only ever adds visitable cells unless an obstacle shows up, and new cells can only make the way home
+ * shorter. So update() relaxes outwards from the newly visitable cells and only recomputes the whole field when a cell
+ * stopped being visitable.
+ */
+
+public class HomeDistanceField {
+    private final Map map;
+    private final MovementTimingModel timing;
+    private final double[] costs = new double[PoseIndex.NUM_STATES];
+    private final boolean[] visitable = new boolean[MapConstants.MAP_SIZE];
+    private final PriorityQueue<double[]> toVisit = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));   // [cost, state]
+    private int recomputes;
+
+    public HomeDistanceField(Map map, MovementTimingModel timing) {
+        this.map = map;
+        this.timing = timing;
+        update();
+    }
+
+    /**
+     * Brings the field up to date with the map.
+     */
+    public void update() {
+        boolean lost = false;
+        boolean gained = false;
+        for (int r = 0; r < MapConstants.MAP_ROWS; r++) {
+            for (int c = 0; c < MapConstants.MAP_COLS; c++) {
+                Cell cell = map.getCell(r, c);
+                boolean v = cell.getIsExplored() && !cell.getIsObstacle() && !cell.getIsVirtualWall();
+                int i = r * MapConstants.MAP_COLS + c;
+                if (v == visitable[i]) continue;
+
+                visitable[i] = v;
+                if (!v) {
+                    lost = true;
+                } else if (!lost) {
+                    gained = true;
+                    // A new cell can be reached through its neighbours, and opens a way to them.
+                    for (int d = 0; d < PoseIndex.NUM_DIRS; d++) seedFromNeighbours(r, c, d);
+                }
+            }
+        }
+
+        if (lost || recomputes == 0) {
+            recompute();
+        } else if (gained) {
+            propagate();
+        }
+    }
+
+    /**
+     * Returns the time to get from the pose to START, or Double.MAX_VALUE if there is no known way.
+     */
+    public double getCost(int row, int col, DIRECTION dir) {
+        return costs[PoseIndex.state(row, col, dir.ordinal())];
+    }
+
+    /**
+     * Returns how often the field was recomputed from scratch.
+     */
+    public int getRecomputes() {
+        return recomputes;
+    }
+
+    private void recompute() {
+        recomputes++;
+        Arrays.fill(costs, Double.MAX_VALUE);
+        toVisit.clear();
+        if (visitable[RobotConstants.START_ROW * MapConstants.MAP_COLS + RobotConstants.START_COL]) {
+            for (int d = 0; d < PoseIndex.NUM_DIRS; d++) {
+                int s = PoseIndex.state(RobotConstants.START_ROW, RobotConstants.START_COL, d);
+                costs[s] = 0;
+                toVisit.add(new double[]{0, s});
+            }
+        }
+        propagate();
+    }
+
+    /**
+     * Computes the cost of a state from the states it can move on to.
+     */
+    private void seedFromNeighbours(int row, int col, int dir) {
+        int s = PoseIndex.state(row, col, dir);
+        double best = costs[s];
+        double turnCost = timing.getTurn() + timing.getForwardBase();
+        best = Math.min(best, add(costs[PoseIndex.state(row, col, (dir + 1) % PoseIndex.NUM_DIRS)], turnCost));
+        best = Math.min(best, add(costs[PoseIndex.state(row, col, (dir + PoseIndex.NUM_DIRS - 1) % PoseIndex.NUM_DIRS)], turnCost));
+        int r = row + DIRECTION.get(dir).getRowStep(), c = col + DIRECTION.get(dir).getColStep();
+        if (isVisitable(r, c)) best = Math.min(best, add(costs[PoseIndex.state(r, c, dir)], timing.getForwardPerCell()));
+
+        if (best < costs[s]) {
+            costs[s] = best;
+            toVisit.add(new double[]{best, s});
+        }
+    }
+
+    /**
+     * Dijkstra backwards from the queued states: a state is reached by turning in place, or by a move forward from
+     * the cell behind it.
+     */
+    private void propagate() {
+        double turnCost = timing.getTurn() + timing.getForwardBase();
+        while (!toVisit.isEmpty()) {
+            double[] next = toVisit.poll();
+            int current = (int) next[1];
+            if (next[0] > costs[current]) continue;     // stale entry
+
+            int row = PoseIndex.getRow(current);
+            int col = PoseIndex.getCol(current);
+            int dir = PoseIndex.getDir(current);
+
+            relax(PoseIndex.state(row, col, (dir + 1) % PoseIndex.NUM_DIRS), next[0] + turnCost);
+            relax(PoseIndex.state(row, col, (dir + PoseIndex.NUM_DIRS - 1) % PoseIndex.NUM_DIRS), next[0] + turnCost);
+
+            int r = row - DIRECTION.get(dir).getRowStep(), c = col - DIRECTION.get(dir).getColStep();
+            if (isVisitable(r, c)) relax(PoseIndex.state(r, c, dir), next[0] + timing.getForwardPerCell());
+        }
+    }
+
+    private void relax(int s, double cost) {
+        if (cost >= costs[s]) return;
+        costs[s] = cost;
+        toVisit.add(new double[]{cost, s});
+    }
+
+    private boolean isVisitable(int row, int col) {
+        return row >= 0 && row < MapConstants.MAP_ROWS && col >= 0 && col < MapConstants.MAP_COLS && visitable[row * MapConstants.MAP_COLS + col];
+    }
+
+    private static double add(double cost, double step) {
+        return cost == Double.MAX_VALUE ? cost : cost + step;
+    }
+}
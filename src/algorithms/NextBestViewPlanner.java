@@ -0,0 +1,247 @@
+package algorithms;
+
+import map.Cell;
+import map.Map;
+import map.MapConstants;
+import robot.MovementTimingModel;
+import robot.Robot;
+import robot.RobotConstants.DIRECTION;
+import robot.Sensor;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+// @formatter:off
+/**
+ * Next-best-view planner: picks the pose (cell + heading) whose sensors would reveal the most unexplored cells per
+ * unit of travel time.
+ *
+ *   score(pose) = gain(pose) / travel time(pose)
+ *
+ * gain counts the unexplored cells in the sensor footprints of the pose, stopping each sensor at the first known
+ * obstacle (unexplored cells are assumed to be free). The footprints are taken from the robot's own sensors once per
+ * heading, as cell offsets from the robot's center. Travel times come from one Dijkstra search over (cell, heading)
+ * with the robot's MovementTimingModel. Candidates are scored in parallel against a snapshot of the explored map, so
+ * the map itself is only read by the calling thread.
+ */
+// @formatter:on
+
+public class NextBestViewPlanner {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte FREE = 1;
+    private static final byte OBSTACLE = 2;
+
+    private static final int[][][] FOOTPRINTS = buildFootprints();     // [heading][sensor] = {rowOff, colOff, rowInc, colInc, lower, upper}
+
+    /**
+     * A candidate pose with its expected gain (cells) and travel time (ms).
+     */
+    public static final class Pose {
+        public final int row;
+        public final int col;
+        public final DIRECTION dir;
+        public final int gain;
+        public final double cost;
+
+        Pose(int row, int col, DIRECTION dir, int gain, double cost) {
+            this.row = row;
+            this.col = col;
+            this.dir = dir;
+            this.gain = gain;
+            this.cost = cost;
+        }
+
+        public double getScore() {
+            return gain / cost;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + row + ", " + col + ", " + DIRECTION.print(dir) + ") gain " + gain + " cost " + Math.round(cost);
+        }
+    }
+
+    private final Map map;
+    private final MovementTimingModel timing;
+    private final byte[] cells = new byte[MapConstants.MAP_SIZE];
+    private final boolean[] visitable = new boolean[MapConstants.MAP_SIZE];
+    private final double[] costs = new double[PoseIndex.NUM_STATES];
+    private final boolean[] visited = new boolean[PoseIndex.NUM_STATES];
+
+    public NextBestViewPlanner(Map map, MovementTimingModel timing) {
+        this.map = map;
+        this.timing = timing;
+    }
+
+    /**
+     * Returns the reachable pose with the best gain per travel time, or null if no pose that has not been visited
+     * yet would reveal anything.
+     */
+    public Pose choose(Robot bot) {
+        takeSnapshot();
+        computeTravelCosts(bot.getRobotPosRow(), bot.getRobotPosCol(), bot.getRobotCurDir());
+
+        return IntStream.range(0, PoseIndex.NUM_STATES).parallel()
+                .filter(s -> !visited[s] && costs[s] > 0 && costs[s] < Double.MAX_VALUE)
+                .mapToObj(s -> new Pose(PoseIndex.getRow(s), PoseIndex.getCol(s), DIRECTION.get(PoseIndex.getDir(s)), computeGain(s), costs[s]))
+                .filter(p -> p.gain > 0)
+                .max(Comparator.comparingDouble(Pose::getScore).thenComparing(p -> -PoseIndex.state(p.row, p.col, p.dir.ordinal())))
+                .orElse(null);
+    }
+
+    /**
+     * Returns the gain of a pose against the current map. Takes a new snapshot, so call it once per decision and use
+     * getGain(row, col, dir) to compare several poses.
+     */
+    public int getGain(Pose pose) {
+        takeSnapshot();
+        return getGain(pose.row, pose.col, pose.dir);
+    }
+
+    /**
+     * Returns the gain of the pose [row, col, dir] against the last snapshot (see takeSnapshot()).
+     */
+    public int getGain(int row, int col, DIRECTION dir) {
+        return computeGain(PoseIndex.state(row, col, dir.ordinal()));
+    }
+
+    /**
+     * Excludes a pose from future choices, e.g. once the robot has sensed from it.
+     */
+    public void markVisited(Pose pose) {
+        visited[PoseIndex.state(pose.row, pose.col, pose.dir.ordinal())] = true;
+    }
+
+    /**
+     * Copies the current map, so that the queries below can run in parallel and do not see it change.
+     */
+    void takeSnapshot() {
+        for (int r = 0; r < MapConstants.MAP_ROWS; r++) {
+            for (int c = 0; c < MapConstants.MAP_COLS; c++) {
+                Cell cell = map.getCell(r, c);
+                int i = r * MapConstants.MAP_COLS + c;
+                cells[i] = !cell.getIsExplored() ? UNKNOWN : cell.getIsObstacle() ? OBSTACLE : FREE;
+                visitable[i] = cells[i] == FREE && !cell.getIsVirtualWall();
+            }
+        }
+    }
+
+    /**
+     * Returns the travel times from the given pose to every pose, indexed by PoseIndex.state(). Uses the last
+     * snapshot.
+     */
+    double[] getTravelCosts(int row, int col, DIRECTION dir) {
+        computeTravelCosts(row, col, dir);
+        return costs.clone();
+    }
+
+    /**
+     * Dijkstra from the robot's pose over (cell, heading) states. Moving one cell costs forwardPerCell; a turn costs
+     * turn + forwardBase, as the next straight starts from standstill.
+     */
+    private void computeTravelCosts(int startRow, int startCol, DIRECTION startDir) {
+        Arrays.fill(costs, Double.MAX_VALUE);
+        PriorityQueue<double[]> toVisit = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));   // [g(n), state]
+        int start = PoseIndex.state(startRow, startCol, startDir.ordinal());
+        costs[start] = 0;
+        toVisit.add(new double[]{0, start});
+
+        double turnCost = timing.getTurn() + timing.getForwardBase();
+        while (!toVisit.isEmpty()) {
+            double[] next = toVisit.poll();
+            int current = (int) next[1];
+            if (next[0] > costs[current]) continue;     // stale entry
+
+            int row = PoseIndex.getRow(current);
+            int col = PoseIndex.getCol(current);
+            int dir = PoseIndex.getDir(current);
+
+            relax(toVisit, PoseIndex.state(row, col, (dir + 1) % PoseIndex.NUM_DIRS), next[0] + turnCost);
+            relax(toVisit, PoseIndex.state(row, col, (dir + PoseIndex.NUM_DIRS - 1) % PoseIndex.NUM_DIRS), next[0] + turnCost);
+
+            int r = row + DIRECTION.get(dir).getRowStep(), c = col + DIRECTION.get(dir).getColStep();
+            if (isVisitable(r, c)) relax(toVisit, PoseIndex.state(r, c, dir), next[0] + timing.getForwardPerCell());
+        }
+    }
+
+    private void relax(PriorityQueue<double[]> toVisit, int s, double g) {
+        if (g >= costs[s]) return;
+        costs[s] = g;
+        toVisit.add(new double[]{g, s});
+    }
+
+    /**
+     * Counts the unexplored cells in the footprints of the pose. Reads only the snapshot.
+     */
+    private int computeGain(int s) {
+        return getVisibleUnknown(s).length;
+    }
+
+    /**
+     * Returns the indices (row * MAP_COLS + col) of the unexplored cells in the footprints of the pose. Reads only the
+     * snapshot.
+     */
+    int[] getVisibleUnknown(int s) {
+        int row = PoseIndex.getRow(s);
+        int col = PoseIndex.getCol(s);
+        int[][] footprint = FOOTPRINTS[PoseIndex.getDir(s)];
+
+        int capacity = 0;
+        for (int[] ray : footprint) capacity += ray[5];
+        int[] counted = new int[capacity];      // footprints of different sensors may overlap
+        int numCounted = 0;
+        for (int[] ray : footprint) {
+            for (int i = 1; i <= ray[5]; i++) {
+                int r = row + ray[0] + ray[2] * i;
+                int c = col + ray[1] + ray[3] * i;
+                if (r < 0 || r >= MapConstants.MAP_ROWS || c < 0 || c >= MapConstants.MAP_COLS) break;
+
+                int cell = r * MapConstants.MAP_COLS + c;
+                if (cells[cell] == OBSTACLE) break;
+                if (i < ray[4] || cells[cell] != UNKNOWN) continue;
+
+                boolean seen = false;
+                for (int k = 0; k < numCounted && !seen; k++) seen = counted[k] == cell;
+                if (!seen) counted[numCounted++] = cell;
+            }
+        }
+        return Arrays.copyOf(counted, numCounted);
+    }
+
+    /**
+     * Returns true if the cell (row * MAP_COLS + col) was unexplored in the last snapshot.
+     */
+    boolean isUnknown(int cell) {
+        return cells[cell] == UNKNOWN;
+    }
+
+    private boolean isVisitable(int row, int col) {
+        return row >= 0 && row < MapConstants.MAP_ROWS && col >= 0 && col < MapConstants.MAP_COLS && visitable[row * MapConstants.MAP_COLS + col];
+    }
+
+    /**
+     * Places a probe robot in each heading and reads off where its sensors sit and point.
+     */
+    private static int[][][] buildFootprints() {
+        int centerRow = MapConstants.MAP_ROWS / 2, centerCol = MapConstants.MAP_COLS / 2;
+        Robot probe = new Robot(centerRow, centerCol, false);
+
+        int[][][] footprints = new int[PoseIndex.NUM_DIRS][][];
+        for (DIRECTION d : DIRECTION.values()) {
+            probe.setRobotDir(d);
+            probe.setSensors();
+            Sensor[] sensors = probe.getSensors();
+
+            footprints[d.ordinal()] = new int[sensors.length][];
+            for (int i = 0; i < sensors.length; i++) {
+                Sensor s = sensors[i];
+                DIRECTION dir = s.getSensorDir();
+                footprints[d.ordinal()][i] = new int[]{s.getSensorPosRow() - centerRow, s.getSensorPosCol() - centerCol, dir.getRowStep(), dir.getColStep(), s.getLowerRange(), s.getUpperRange()};
+            }
+        }
+        return footprints;
+    }
+}
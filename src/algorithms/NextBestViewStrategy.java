@@ -0,0 +1,42 @@
+package algorithms;
+
+import robot.RobotConstants.MOVEMENT;
+
+import java.util.List;
+
+/**
+ * Next-best-view exploration. Repeatedly drives to the pose chosen by NextBestViewPlanner and turns to its heading.
+ */
+
+public class NextBestViewStrategy implements ExplorationStrategy {
+    public static final String NAME = "nbv";
+
+    private NextBestViewPlanner planner;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void start(ExplorationAlgo explorer) {
+        planner = new NextBestViewPlanner(explorer.getExploredMap(), explorer.getBot().getTimingModel());
+    }
+
+    /**
+     * Drives to the next best view. Stops once no reachable pose would reveal anything.
+     */
+    @Override
+    public boolean step(ExplorationAlgo explorer) {
+        NextBestViewPlanner.Pose pose = planner.choose(explorer.getBot());
+        if (pose == null) return false;
+        if (explorer.getBot().isVerbose()) System.out.println("Next best view: " + pose);
+
+        List<MOVEMENT> movements = new FastestPathAlgo(explorer.getExploredMap(), explorer.getBot()).planPath(pose.row, pose.col);
+        long poseBefore = explorer.getPoseKey();
+        boolean reached = movements != null && explorer.followPath(movements, () -> planner.getGain(pose) > 0);
+        if (reached) explorer.turnBotDirection(pose.dir);
+        if (movements == null || reached || explorer.getPoseKey() == poseBefore) planner.markVisited(pose);
+        return true;
+    }
+}
@@ -0,0 +1,33 @@
+package algorithms;
+
+import map.MapConstants;
+import robot.RobotConstants.DIRECTION;
+
+/**
+ * Numbers the robot's poses (cell, heading) from 0 to NUM_STATES - 1, so that the planners can keep their per-pose
+ * data in flat arrays. Headings are DIRECTION ordinals.
+ */
+
+final class PoseIndex {
+    static final int NUM_DIRS = DIRECTION.values().length;
+    static final int NUM_STATES = MapConstants.MAP_SIZE * NUM_DIRS;
+
+    private PoseIndex() {
+    }
+
+    static int state(int row, int col, int dir) {
+        return (row * MapConstants.MAP_COLS + col) * NUM_DIRS + dir;
+    }
+
+    static int getRow(int state) {
+        return state / NUM_DIRS / MapConstants.MAP_COLS;
+    }
+
+    static int getCol(int state) {
+        return state / NUM_DIRS % MapConstants.MAP_COLS;
+    }
+
+    static int getDir(int state) {
+        return state % NUM_DIRS;
+    }
+}
@@ -0,0 +1,116 @@
+package algorithms;
+
+import robot.MovementTimingModel;
+import robot.Robot;
+import robot.RobotConstants.DIRECTION;
+import robot.RobotConstants.MOVEMENT;
+
+/**
+ * Keeps the robot's right hand on the wall until it is back where it started, escaping to the frontier when it goes
+ * round in circles, then sweeps the pockets the lap left unexplored (see ExplorationAlgo.completionSweep()).
+ *
+ * This is the default strategy.
+ */
+
+public class RightHandRuleStrategy implements ExplorationStrategy {
+    public static final String NAME = "right-hand";
+
+    private int startRow;
+    private int startCol;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void start(ExplorationAlgo explorer) {
+        startRow = explorer.getBot().getRobotPosRow();
+        startCol = explorer.getBot().getRobotPosCol();
+    }
+
+    /**
+     * Makes the next move. Stops once the robot is back at its starting cell, or is caught in a loop and no frontier
+     * is left to escape to.
+     */
+    @Override
+    public boolean step(ExplorationAlgo explorer) {
+        nextMove(explorer);
+
+        Robot bot = explorer.getBot();
+        if (bot.getRobotPosRow() == startRow && bot.getRobotPosCol() == startCol && explorer.getAreaExplored() >= 100) {
+            return false;
+        }
+
+        // The right-hand rule is deterministic, so a repeated pose with nothing new explored means it is going round in
+        // circles, e.g. around a free-standing obstacle.
+        return explorer.escapeLoop();
+    }
+
+    @Override
+    public void finish(ExplorationAlgo explorer) {
+        explorer.completionSweep();
+    }
+
+    /**
+     * Determines the next move for the robot and executes it accordingly.
+     */
+    private void nextMove(ExplorationAlgo explorer) {
+        if (explorer.lookRight()) {
+            explorer.moveBot(MOVEMENT.RIGHT);
+            if (explorer.lookForward()) explorer.moveBotForward(explorer.getForwardRun(ExplorationAlgo.MAX_FORWARD_RUN, true));
+        } else if (explorer.lookForward()) {
+            explorer.moveBotForward(explorer.getForwardRun(ExplorationAlgo.MAX_FORWARD_RUN, true));
+        } else if (explorer.lookLeft()) {
+            explorer.moveBot(MOVEMENT.LEFT);
+            if (explorer.lookForward()) explorer.moveBotForward(explorer.getForwardRun(ExplorationAlgo.MAX_FORWARD_RUN, true));
+        } else if (!reverseOutOfDeadEnd(explorer)) {
+            explorer.moveBot(MOVEMENT.RIGHT);
+            explorer.moveBot(MOVEMENT.RIGHT);
+        }
+    }
+
+    /**
+     * In a dead end, backs out to where the robot could leave the corridor sideways, if that is quicker than turning
+     * around and driving out. Returns false if it did not move.
+     *
+     * Backing out keeps the heading, so the robot's left is the right-hand side of a robot that had turned around.
+     */
+    private boolean reverseOutOfDeadEnd(ExplorationAlgo explorer) {
+        int cells = getReverseRun(explorer);
+        MovementTimingModel durations = explorer.getBot().getDurationModel();
+        if (cells == 0 || cells * durations.getBackward() >= 2 * durations.getTurn() + durations.getForwardTime(cells)) {
+            return false;
+        }
+
+        for (int i = 0; i < cells; i++) explorer.moveBot(MOVEMENT.BACKWARD);
+        if (explorer.lookLeft()) {
+            explorer.moveBot(MOVEMENT.LEFT);
+            if (explorer.lookForward()) explorer.moveBotForward(explorer.getForwardRun(ExplorationAlgo.MAX_FORWARD_RUN, true));
+        } else if (explorer.lookRight()) {
+            explorer.moveBot(MOVEMENT.RIGHT);
+            if (explorer.lookForward()) explorer.moveBotForward(explorer.getForwardRun(ExplorationAlgo.MAX_FORWARD_RUN, true));
+        }
+        return true;
+    }
+
+    /**
+     * Returns how many cells the robot has to reverse (over known free cells) until it can move left or right, or 0
+     * if there is no such place within MAX_FORWARD_RUN cells.
+     */
+    private int getReverseRun(ExplorationAlgo explorer) {
+        Robot bot = explorer.getBot();
+        DIRECTION dir = bot.getRobotCurDir();
+        DIRECTION behind = DIRECTION.getNext(DIRECTION.getNext(dir));
+        int dRow = behind.getRowStep(), dCol = behind.getColStep();
+
+        int row = bot.getRobotPosRow(), col = bot.getRobotPosCol();
+        for (int cells = 1; cells <= ExplorationAlgo.MAX_FORWARD_RUN; cells++) {
+            if (!explorer.isFree(row, col, behind)) return 0;
+            row += dRow;
+            col += dCol;
+            if (explorer.isFree(row, col, DIRECTION.getNext(dir)) || explorer.isFree(row, col, DIRECTION.getPrevious(dir))) return cells;
+        }
+        return 0;
+    }
+}
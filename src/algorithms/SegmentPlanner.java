@@ -0,0 +1,162 @@
+package algorithms;
+
+import map.Cell;
+import map.Map;
+import robot.MovementTimingModel;
+import robot.RobotConstants;
+import robot.RobotConstants.DIRECTION;
+import robot.RobotConstants.MOVEMENT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// @formatter:off
+/**
+ * Fastest path planner over whole straight segments instead of single cells. Uses A* over (cell, heading) states.
+ *
+ * Edges:  turn left / right             cost = turn
+ *         k cells straight ahead        cost = forward(k) of the MovementTimingModel, k <= MAX_REPEAT
+ *         one cell in reverse           cost = backward
+ *
+ * forward(k) = forwardBase + k * forwardPerCell charges the start-up once per segment, so it grows slower than
+ * k * forward(1) and the search prefers fewer, longer straights, which is what the robot executes fastest. A
+ * segment is at most MAX_REPEAT cells, the most the robot moves in one instruction; longer straights are several
+ * segments and pay the start-up again.
+ */
+// @formatter:on
+
+public class SegmentPlanner {
+    private final Map map;
+    private final MovementTimingModel timing;
+    private final double[] gCosts = new double[PoseIndex.NUM_STATES];
+    private final int[] parents = new int[PoseIndex.NUM_STATES];
+    private final int[] parentMoves = new int[PoseIndex.NUM_STATES];  // > 0: cells forward, -1: right, -2: left, -3: backward
+    private int expanded;
+
+    public SegmentPlanner(Map map, MovementTimingModel timing) {
+        this.map = map;
+        this.timing = timing;
+    }
+
+    /**
+     * Returns the movements of the fastest route from the given pose to [goalRow, goalCol], or null if there is none.
+     */
+    public List<MOVEMENT> plan(int startRow, int startCol, DIRECTION startDir, int goalRow, int goalCol) {
+        Arrays.fill(gCosts, Double.MAX_VALUE);
+        Arrays.fill(parents, -1);
+        expanded = 0;
+
+        PriorityQueue<double[]> toVisit = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));     // [f(n), state]
+        int start = PoseIndex.state(startRow, startCol, startDir.ordinal());
+        gCosts[start] = 0;
+        toVisit.add(new double[]{costH(startRow, startCol, startDir.ordinal(), goalRow, goalCol), start});
+
+        while (!toVisit.isEmpty()) {
+            double[] next = toVisit.poll();
+            int current = (int) next[1];
+            int row = PoseIndex.getRow(current);
+            int col = PoseIndex.getCol(current);
+            int dir = PoseIndex.getDir(current);
+            int dRow = DIRECTION.get(dir).getRowStep(), dCol = DIRECTION.get(dir).getColStep();
+            double g = gCosts[current];
+            if (next[0] > g + costH(row, col, dir, goalRow, goalCol)) continue;     // stale entry
+            expanded++;
+
+            if (row == goalRow && col == goalCol) return getMovements(current);
+
+            // Turns
+            relax(toVisit, current, PoseIndex.state(row, col, (dir + 1) % PoseIndex.NUM_DIRS), g + timing.getTurn(), -1, goalRow, goalCol);
+            relax(toVisit, current, PoseIndex.state(row, col, (dir + PoseIndex.NUM_DIRS - 1) % PoseIndex.NUM_DIRS), g + timing.getTurn(), -2, goalRow, goalCol);
+
+            // Reversing one cell, keeping the heading
+            int br = row - dRow, bc = col - dCol;
+            if (canBeVisited(br, bc)) relax(toVisit, current, PoseIndex.state(br, bc, dir), g + timing.getBackward(), -3, goalRow, goalCol);
+
+            // Straight segments of every possible length
+            int r = row, c = col;
+            for (int k = 1; k <= RobotConstants.MAX_REPEAT; k++) {
+                r += dRow;
+                c += dCol;
+                if (!canBeVisited(r, c)) break;
+                relax(toVisit, current, PoseIndex.state(r, c, dir), g + timing.getForwardTime(k), k, goalRow, goalCol);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the number of states expanded by the last plan().
+     */
+    public int getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Returns the planned cost of reaching a state in the last plan().
+     */
+    public double getCost(int row, int col, DIRECTION dir) {
+        return gCosts[PoseIndex.state(row, col, dir.ordinal())];
+    }
+
+    private void relax(PriorityQueue<double[]> toVisit, int from, int to, double g, int move, int goalRow, int goalCol) {
+        if (g >= gCosts[to]) return;
+
+        gCosts[to] = g;
+        parents[to] = from;
+        parentMoves[to] = move;
+        toVisit.add(new double[]{g + costH(PoseIndex.getRow(to), PoseIndex.getCol(to), PoseIndex.getDir(to), goalRow, goalCol), to});
+    }
+
+    /**
+     * Returns the heuristic cost i.e. h(n): the straight-line cells plus, if the goal is in neither the same row nor
+     * column, one turn and a second segment. If reversing is cheaper than moving forward, all cells are charged at
+     * the reversing cost instead so that h(n) stays admissible.
+     */
+    private double costH(int row, int col, int dir, int goalRow, int goalCol) {
+        int cells = Math.abs(goalRow - row) + Math.abs(goalCol - col);
+        if (cells == 0) return 0;
+
+        boolean twoSegments = goalRow != row && goalCol != col;
+        if (timing.getBackward() < timing.getForwardTime(1)) {
+            return cells * Math.min(timing.getBackward(), timing.getForwardPerCell()) + (twoSegments ? timing.getTurn() : 0);
+        }
+
+        double cost = timing.getForwardTime(cells);
+        if (twoSegments) cost += timing.getTurn() + timing.getForwardBase();
+        return cost;
+    }
+
+    /**
+     * Returns true if the robot's center can be at the cell.
+     */
+    private boolean canBeVisited(int row, int col) {
+        if (!map.checkValidCoordinates(row, col)) return false;
+        Cell c = map.getCell(row, col);
+        return c.getIsExplored() && !c.getIsObstacle() && !c.getIsVirtualWall();
+    }
+
+    /**
+     * Walks back from the goal state and expands every segment into single FORWARD movements.
+     */
+    private List<MOVEMENT> getMovements(int goal) {
+        List<MOVEMENT> movements = new ArrayList<>();
+        for (int s = goal; parents[s] >= 0; s = parents[s]) {
+            int move = parentMoves[s];
+            if (move == -1) {
+                movements.add(MOVEMENT.RIGHT);
+            } else if (move == -2) {
+                movements.add(MOVEMENT.LEFT);
+            } else if (move == -3) {
+                movements.add(MOVEMENT.BACKWARD);
+            } else {
+                for (int i = 0; i < move; i++) movements.add(MOVEMENT.FORWARD);
+            }
+        }
+        Collections.reverse(movements);
+        return movements;
+    }
+}
@@ -0,0 +1,154 @@
+package map;
+
+import robot.RobotConstants;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * The obstacles of an arena, without the exploration state of a Map: one bit per cell, cell (row, col) at bit
+ * row * MAP_COLS + col. Arenas are immutable and take NUM_BYTES each, so large sets of them are cheap to keep and to
+ * share between threads.
+ */
+
+public final class Arena {
+    public static final int NUM_BYTES = (MapConstants.MAP_SIZE + 7) / 8;
+
+    private final String name;
+    private final ByteBuffer bits;      // NUM_BYTES, read-only
+
+    /**
+     * Creates an arena from the NUM_BYTES bytes of bits starting at its position. The bytes are not copied.
+     */
+    public Arena(String name, ByteBuffer bits) {
+        if (bits.remaining() < NUM_BYTES) throw new IllegalArgumentException("An arena needs " + NUM_BYTES + " bytes, got " + bits.remaining());
+        this.name = name;
+        this.bits = bits.slice(bits.position(), NUM_BYTES).asReadOnlyBuffer();
+    }
+
+    /**
+     * Creates an arena from obstacles[row][col].
+     */
+    public Arena(String name, boolean[][] obstacles) {
+        byte[] packed = new byte[NUM_BYTES];
+        for (int row = 0; row < MapConstants.MAP_ROWS; row++) {
+            for (int col = 0; col < MapConstants.MAP_COLS; col++) {
+                int i = row * MapConstants.MAP_COLS + col;
+                if (obstacles[row][col]) packed[i >> 3] |= 1 << (i & 7);
+            }
+        }
+        this.name = name;
+        this.bits = ByteBuffer.wrap(packed).asReadOnlyBuffer();
+    }
+
+    /**
+     * Parses the maps/<name>.txt format with the line breaks removed: one '1' (obstacle) or '0' per cell, from the
+     * top row (MAP_ROWS - 1) down, each row from column 0.
+     */
+    public static Arena parse(String name, String bin) {
+        if (bin.length() < MapConstants.MAP_SIZE) throw new IllegalArgumentException(name + " has " + bin.length() + " cells, expected " + MapConstants.MAP_SIZE);
+
+        boolean[][] obstacles = new boolean[MapConstants.MAP_ROWS][MapConstants.MAP_COLS];
+        int binPtr = 0;
+        for (int row = MapConstants.MAP_ROWS - 1; row >= 0; row--) {
+            for (int col = 0; col < MapConstants.MAP_COLS; col++) {
+                obstacles[row][col] = bin.charAt(binPtr) == '1';
+                binPtr++;
+            }
+        }
+        return new Arena(name, obstacles);
+    }
+
+    /**
+     * Returns the arena in the maps/<name>.txt format, one line per row.
+     */
+    public String toText() {
+        StringBuilder sb = new StringBuilder(MapConstants.MAP_SIZE + MapConstants.MAP_ROWS);
+        for (int row = MapConstants.MAP_ROWS - 1; row >= 0; row--) {
+            for (int col = 0; col < MapConstants.MAP_COLS; col++) {
+                sb.append(isObstacle(row, col) ? '1' : '0');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the NUM_BYTES bytes of the arena, read-only.
+     */
+    public ByteBuffer getBits() {
+        return bits.duplicate();
+    }
+
+    public boolean isObstacle(int row, int col) {
+        int i = row * MapConstants.MAP_COLS + col;
+        return (bits.get(i >> 3) & (1 << (i & 7))) != 0;
+    }
+
+    public int getObstacleCount() {
+        int count = 0;
+        for (int i = 0; i < NUM_BYTES; i++) count += Integer.bitCount(bits.get(i) & 0xFF);
+        return count;
+    }
+
+    /**
+     * Sets the obstacles of the arena on the map and marks every cell explored, as the real map of a simulation.
+     */
+    public void applyTo(Map map) {
+        for (int row = 0; row < MapConstants.MAP_ROWS; row++) {
+            for (int col = 0; col < MapConstants.MAP_COLS; col++) {
+                if (isObstacle(row, col)) map.setObstacleCell(row, col, true);
+            }
+        }
+        map.setAllExplored();
+    }
+
+    /**
+     * Returns true if the robot can drive from START to GOAL: a breadth-first search over the cells its center can
+     * take, i.e. those whose 3x3 footprint is free and inside the arena.
+     */
+    public boolean isGoalReachable() {
+        boolean[][] seen = new boolean[MapConstants.MAP_ROWS][MapConstants.MAP_COLS];
+        Queue<int[]> queue = new ArrayDeque<>();
+        if (!fits(RobotConstants.START_ROW, RobotConstants.START_COL)) return false;
+        seen[RobotConstants.START_ROW][RobotConstants.START_COL] = true;
+        queue.add(new int[]{RobotConstants.START_ROW, RobotConstants.START_COL});
+
+        while (!queue.isEmpty()) {
+            int[] cur = queue.poll();
+            if (cur[0] == MapConstants.GOAL_ROW && cur[1] == MapConstants.GOAL_COL) return true;
+
+            int[][] next = {{cur[0] + 1, cur[1]}, {cur[0] - 1, cur[1]}, {cur[0], cur[1] + 1}, {cur[0], cur[1] - 1}};
+            for (int[] n : next) {
+                if (fits(n[0], n[1]) && !seen[n[0]][n[1]]) {
+                    seen[n[0]][n[1]] = true;
+                    queue.add(n);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if a robot centered at [row, col] is inside the arena and clear of obstacles.
+     */
+    private boolean fits(int row, int col) {
+        if (row < 1 || col < 1 || row > MapConstants.MAP_ROWS - 2 || col > MapConstants.MAP_COLS - 2) return false;
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = col - 1; c <= col + 1; c++) {
+                if (isObstacle(r, c)) return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + getObstacleCount() + " obstacles)";
+    }
+}
@@ -0,0 +1,132 @@
+package map;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// @formatter:off
+/**
+ * Generates random arenas reproducibly. Arena i depends only on the seed, the settings and i, so the same arenas come
+ * out whether they are generated in order, lazily, or in parallel.
+ *
+ *   density      share of the cells outside the START and GOAL zones that are obstacles      (default 0.1)
+ *   clustering   chance that an obstacle is placed next to an earlier one instead of anywhere (default 0.3)
+ *   corridors    number of straight walls, MIN_WALL to MAX_WALL cells long, laid out first   (default 2)
+ *
+ * The START and GOAL zones are always free and the robot can always drive from START to GOAL: arenas without such a
+ * path are drawn again.
+ */
+// @formatter:on
+
+public class ArenaGenerator {
+    private static final int MIN_WALL = 3;
+    private static final int MAX_WALL = 8;
+    private static final int MAX_ATTEMPTS = 1000;   // draws per arena before giving up on a reachable GOAL
+
+    private final long seed;
+    private double density = 0.1;
+    private double clustering = 0.3;
+    private int corridors = 2;
+
+    public ArenaGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public void setDensity(double density) {
+        if (density < 0 || density >= 1) throw new IllegalArgumentException("density must be in [0, 1): " + density);
+        this.density = density;
+    }
+
+    public void setClustering(double clustering) {
+        if (clustering < 0 || clustering > 1) throw new IllegalArgumentException("clustering must be in [0, 1]: " + clustering);
+        this.clustering = clustering;
+    }
+
+    public void setCorridors(int corridors) {
+        if (corridors < 0) throw new IllegalArgumentException("corridors must not be negative: " + corridors);
+        this.corridors = corridors;
+    }
+
+    /**
+     * Returns arenas 0, 1, 2, ... generated as they are consumed. The stream is infinite; use limit().
+     */
+    public Stream<Arena> stream() {
+        return IntStream.iterate(0, i -> i + 1).mapToObj(this::generate);
+    }
+
+    /**
+     * Returns arenas 0 to count - 1, generated as they are consumed. Splits well for parallel().
+     */
+    public Stream<Arena> stream(int count) {
+        return IntStream.range(0, count).mapToObj(this::generate);
+    }
+
+    /**
+     * Returns arena number index.
+     */
+    public Arena generate(int index) {
+        SplittableRandom rnd = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index);
+        String name = getName(index);
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Arena arena = new Arena(name, drawObstacles(rnd));
+            if (arena.isGoalReachable()) return arena;
+        }
+        throw new IllegalStateException("No arena with a reachable GOAL in " + MAX_ATTEMPTS + " attempts, density " + density + " is too high");
+    }
+
+    /**
+     * Returns the name of arena number index, without generating it.
+     */
+    public String getName(int index) {
+        return "gen-" + seed + "-" + index;
+    }
+
+    private boolean[][] drawObstacles(SplittableRandom rnd) {
+        boolean[][] obstacles = new boolean[MapConstants.MAP_ROWS][MapConstants.MAP_COLS];
+        List<int[]> placed = new ArrayList<>();
+        int target = (int) Math.round(density * (MapConstants.MAP_SIZE - 18));     // two 3x3 zones stay free
+
+        for (int i = 0; i < corridors && placed.size() < target; i++) {
+            boolean horizontal = rnd.nextBoolean();
+            int length = rnd.nextInt(MIN_WALL, MAX_WALL + 1);
+            int row = rnd.nextInt(MapConstants.MAP_ROWS), col = rnd.nextInt(MapConstants.MAP_COLS);
+            for (int j = 0; j < length && placed.size() < target; j++) {
+                place(obstacles, placed, horizontal ? row : row + j, horizontal ? col + j : col);
+            }
+        }
+
+        // Give up on crowded arenas rather than loop forever; the GOAL check rejects them anyway.
+        for (int tries = 0; placed.size() < target && tries < 100 * MapConstants.MAP_SIZE; tries++) {
+            if (!placed.isEmpty() && rnd.nextDouble() < clustering) {
+                int[] next = placed.get(rnd.nextInt(placed.size()));
+                int dir = rnd.nextInt(4);
+                place(obstacles, placed, next[0] + (dir == 0 ? 1 : dir == 1 ? -1 : 0), next[1] + (dir == 2 ? 1 : dir == 3 ? -1 : 0));
+            } else {
+                place(obstacles, placed, rnd.nextInt(MapConstants.MAP_ROWS), rnd.nextInt(MapConstants.MAP_COLS));
+            }
+        }
+        return obstacles;
+    }
+
+    /**
+     * Makes [row, col] an obstacle if it is inside the arena, outside the START and GOAL zones and still free.
+     */
+    private static void place(boolean[][] obstacles, List<int[]> placed, int row, int col) {
+        if (row < 0 || col < 0 || row >= MapConstants.MAP_ROWS || col >= MapConstants.MAP_COLS) return;
+        if (obstacles[row][col] || inStartZone(row, col) || inGoalZone(row, col)) return;
+
+        obstacles[row][col] = true;
+        placed.add(new int[]{row, col});
+    }
+
+    private static boolean inStartZone(int row, int col) {
+        return row <= 2 && col <= 2;
+    }
+
+    private static boolean inGoalZone(int row, int col) {
+        return Math.abs(row - MapConstants.GOAL_ROW) <= 1 && Math.abs(col - MapConstants.GOAL_COL) <= 1;
+    }
+}
@@ -3,7 +3,7 @@ package map;
 import java.awt.*;
 
 /**
- * Constants used in the Map class for rendering the arena in the simulator.
+ * Constants used in the MapPanel class for rendering the arena in the simulator.
  */
 
 class GraphicsConstants {
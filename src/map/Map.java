@@ -1,18 +1,15 @@
 package map;
 
 import robot.Robot;
-import robot.RobotConstants;
-
-import javax.swing.*;
-import java.awt.*;
 
 /**
- * Represents the entire map grid for the arena.
+ * Represents the entire map grid for the arena. A Map holds no Swing state; the simulator shows it in a MapPanel.
  */
 
-public class Map extends JPanel {
+public class Map {
     private final Cell[][] grid;
     private final Robot bot;
+    private Runnable repaintListener;       // set by the MapPanel showing this map, if any
 
     /**
      * Initialises a Map object with a grid of Cell objects.
@@ -43,14 +40,14 @@ public class Map extends JPanel {
     /**
      * Returns true if the row and column values are in the start zone.
      */
-    private boolean inStartZone(int row, int col) {
+    boolean inStartZone(int row, int col) {
         return row >= 0 && row <= 2 && col >= 0 && col <= 2;
     }
 
     /**
      * Returns true if the row and column values are in the goal zone.
      */
-    private boolean inGoalZone(int row, int col) {
+    boolean inGoalZone(int row, int col) {
         return (row <= MapConstants.GOAL_ROW + 1 && row >= MapConstants.GOAL_ROW - 1 && col <= MapConstants.GOAL_COL + 1 && col >= MapConstants.GOAL_COL - 1);
     }
 
@@ -152,77 +149,24 @@ public class Map extends JPanel {
     }
 
     /**
-     * Overrides JComponent's paintComponent() method. It creates a two-dimensional array of _DisplayCell objects
-     * to store the current map state. Then, it paints square cells for the grid with the appropriate colors as
-     * well as the robot on-screen.
+     * Returns the robot drawn on this map.
      */
-    public void paintComponent(Graphics g) {
-        // Create a two-dimensional array of _DisplayCell objects for rendering.
-        _DisplayCell[][] _mapCells = new _DisplayCell[MapConstants.MAP_ROWS][MapConstants.MAP_COLS];
-        for (int mapRow = 0; mapRow < MapConstants.MAP_ROWS; mapRow++) {
-            for (int mapCol = 0; mapCol < MapConstants.MAP_COLS; mapCol++) {
-                _mapCells[mapRow][mapCol] = new _DisplayCell(mapCol * GraphicsConstants.CELL_SIZE, mapRow * GraphicsConstants.CELL_SIZE, GraphicsConstants.CELL_SIZE);
-            }
-        }
-
-        // Paint the cells with the appropriate colors.
-        for (int mapRow = 0; mapRow < MapConstants.MAP_ROWS; mapRow++) {
-            for (int mapCol = 0; mapCol < MapConstants.MAP_COLS; mapCol++) {
-                Color cellColor;
-
-                if (inStartZone(mapRow, mapCol))
-                    cellColor = GraphicsConstants.C_START;
-                else if (inGoalZone(mapRow, mapCol))
-                    cellColor = GraphicsConstants.C_GOAL;
-                else {
-                    if (!grid[mapRow][mapCol].getIsExplored())
-                        cellColor = GraphicsConstants.C_UNEXPLORED;
-                    else if (grid[mapRow][mapCol].getIsObstacle())
-                        cellColor = GraphicsConstants.C_OBSTACLE;
-                    else
-                        cellColor = GraphicsConstants.C_FREE;
-                }
-
-                g.setColor(cellColor);
-                g.fillRect(_mapCells[mapRow][mapCol].cellX + GraphicsConstants.MAP_X_OFFSET, _mapCells[mapRow][mapCol].cellY, _mapCells[mapRow][mapCol].cellSize, _mapCells[mapRow][mapCol].cellSize);
-
-            }
-        }
-
-        // Paint the robot on-screen.
-        g.setColor(GraphicsConstants.C_ROBOT);
-        int r = bot.getRobotPosRow();
-        int c = bot.getRobotPosCol();
-        g.fillOval((c - 1) * GraphicsConstants.CELL_SIZE + GraphicsConstants.ROBOT_X_OFFSET + GraphicsConstants.MAP_X_OFFSET, GraphicsConstants.MAP_H - (r * GraphicsConstants.CELL_SIZE + GraphicsConstants.ROBOT_Y_OFFSET), GraphicsConstants.ROBOT_W, GraphicsConstants.ROBOT_H);
-
-        // Paint the robot's direction indicator on-screen.
-        g.setColor(GraphicsConstants.C_ROBOT_DIR);
-        RobotConstants.DIRECTION d = bot.getRobotCurDir();
-        switch (d) {
-            case NORTH:
-                g.fillOval(c * GraphicsConstants.CELL_SIZE + 10 + GraphicsConstants.MAP_X_OFFSET, GraphicsConstants.MAP_H - r * GraphicsConstants.CELL_SIZE - 15, GraphicsConstants.ROBOT_DIR_W, GraphicsConstants.ROBOT_DIR_H);
-                break;
-            case EAST:
-                g.fillOval(c * GraphicsConstants.CELL_SIZE + 35 + GraphicsConstants.MAP_X_OFFSET, GraphicsConstants.MAP_H - r * GraphicsConstants.CELL_SIZE + 10, GraphicsConstants.ROBOT_DIR_W, GraphicsConstants.ROBOT_DIR_H);
-                break;
-            case SOUTH:
-                g.fillOval(c * GraphicsConstants.CELL_SIZE + 10 + GraphicsConstants.MAP_X_OFFSET, GraphicsConstants.MAP_H - r * GraphicsConstants.CELL_SIZE + 35, GraphicsConstants.ROBOT_DIR_W, GraphicsConstants.ROBOT_DIR_H);
-                break;
-            case WEST:
-                g.fillOval(c * GraphicsConstants.CELL_SIZE - 15 + GraphicsConstants.MAP_X_OFFSET, GraphicsConstants.MAP_H - r * GraphicsConstants.CELL_SIZE + 10, GraphicsConstants.ROBOT_DIR_W, GraphicsConstants.ROBOT_DIR_H);
-                break;
-        }
+    public Robot getBot() {
+        return bot;
     }
 
-    private class _DisplayCell {
-        public final int cellX;
-        public final int cellY;
-        public final int cellSize;
+    /**
+     * Sets the action that repaint() runs, e.g. repainting the MapPanel that shows this map.
+     */
+    public void setRepaintListener(Runnable repaintListener) {
+        this.repaintListener = repaintListener;
+    }
 
-        public _DisplayCell(int borderX, int borderY, int borderSize) {
-            this.cellX = borderX + GraphicsConstants.CELL_LINE_WEIGHT;
-            this.cellY = GraphicsConstants.MAP_H - (borderY - GraphicsConstants.CELL_LINE_WEIGHT);
-            this.cellSize = borderSize - (GraphicsConstants.CELL_LINE_WEIGHT * 2);
-        }
+    /**
+     * Asks the view of this map, if there is one, to repaint itself.
+     */
+    public void repaint() {
+        Runnable listener = repaintListener;
+        if (listener != null) listener.run();
     }
 }
@@ -0,0 +1,96 @@
+package map;
+
+import robot.Robot;
+import robot.RobotConstants;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Draws a Map and its robot in the simulator. The panel repaints whenever the map's repaint() is called.
+ */
+
+public class MapPanel extends JPanel {
+    private final Map map;
+
+    public MapPanel(Map map) {
+        this.map = map;
+        map.setRepaintListener(this::repaint);
+    }
+
+    /**
+     * Overrides JComponent's paintComponent() method. It creates a two-dimensional array of _DisplayCell objects
+     * to store the current map state. Then, it paints square cells for the grid with the appropriate colors as
+     * well as the robot on-screen.
+     */
+    public void paintComponent(Graphics g) {
+        // Create a two-dimensional array of _DisplayCell objects for rendering.
+        _DisplayCell[][] _mapCells = new _DisplayCell[MapConstants.MAP_ROWS][MapConstants.MAP_COLS];
+        for (int mapRow = 0; mapRow < MapConstants.MAP_ROWS; mapRow++) {
+            for (int mapCol = 0; mapCol < MapConstants.MAP_COLS; mapCol++) {
+                _mapCells[mapRow][mapCol] = new _DisplayCell(mapCol * GraphicsConstants.CELL_SIZE, mapRow * GraphicsConstants.CELL_SIZE, GraphicsConstants.CELL_SIZE);
+            }
+        }
+
+        // Paint the cells with the appropriate colors.
+        for (int mapRow = 0; mapRow < MapConstants.MAP_ROWS; mapRow++) {
+            for (int mapCol = 0; mapCol < MapConstants.MAP_COLS; mapCol++) {
+                Color cellColor;
+
+                if (map.inStartZone(mapRow, mapCol))
+                    cellColor = GraphicsConstants.C_START;
+                else if (map.inGoalZone(mapRow, mapCol))
+                    cellColor = GraphicsConstants.C_GOAL;
+                else {
+                    if (!map.getCell(mapRow, mapCol).getIsExplored())
+                        cellColor = GraphicsConstants.C_UNEXPLORED;
+                    else if (map.getCell(mapRow, mapCol).getIsObstacle())
+                        cellColor = GraphicsConstants.C_OBSTACLE;
+                    else
+                        cellColor = GraphicsConstants.C_FREE;
+                }
+
+                g.setColor(cellColor);
+                g.fillRect(_mapCells[mapRow][mapCol].cellX + GraphicsConstants.MAP_X_OFFSET, _mapCells[mapRow][mapCol].cellY, _mapCells[mapRow][mapCol].cellSize, _mapCells[mapRow][mapCol].cellSize);
+
+            }
+        }
+
+        // Paint the robot on-screen.
+        g.setColor(GraphicsConstants.C_ROBOT);
+        Robot bot = map.getBot();
+        int r = bot.getRobotPosRow();
+        int c = bot.getRobotPosCol();
+        g.fillOval((c - 1) * GraphicsConstants.CELL_SIZE + GraphicsConstants.ROBOT_X_OFFSET + GraphicsConstants.MAP_X_OFFSET, GraphicsConstants.MAP_H - (r * GraphicsConstants.CELL_SIZE + GraphicsConstants.ROBOT_Y_OFFSET), GraphicsConstants.ROBOT_W, GraphicsConstants.ROBOT_H);
+
+        // Paint the robot's direction indicator on-screen.
+        g.setColor(GraphicsConstants.C_ROBOT_DIR);
+        RobotConstants.DIRECTION d = bot.getRobotCurDir();
+        switch (d) {
+            case NORTH:
+                g.fillOval(c * GraphicsConstants.CELL_SIZE + 10 + GraphicsConstants.MAP_X_OFFSET, GraphicsConstants.MAP_H - r * GraphicsConstants.CELL_SIZE - 15, GraphicsConstants.ROBOT_DIR_W, GraphicsConstants.ROBOT_DIR_H);
+                break;
+            case EAST:
+                g.fillOval(c * GraphicsConstants.CELL_SIZE + 35 + GraphicsConstants.MAP_X_OFFSET, GraphicsConstants.MAP_H - r * GraphicsConstants.CELL_SIZE + 10, GraphicsConstants.ROBOT_DIR_W, GraphicsConstants.ROBOT_DIR_H);
+                break;
+            case SOUTH:
+                g.fillOval(c * GraphicsConstants.CELL_SIZE + 10 + GraphicsConstants.MAP_X_OFFSET, GraphicsConstants.MAP_H - r * GraphicsConstants.CELL_SIZE + 35, GraphicsConstants.ROBOT_DIR_W, GraphicsConstants.ROBOT_DIR_H);
+                break;
+            case WEST:
+                g.fillOval(c * GraphicsConstants.CELL_SIZE - 15 + GraphicsConstants.MAP_X_OFFSET, GraphicsConstants.MAP_H - r * GraphicsConstants.CELL_SIZE + 10, GraphicsConstants.ROBOT_DIR_W, GraphicsConstants.ROBOT_DIR_H);
+                break;
+        }
+    }
+
+    private class _DisplayCell {
+        public final int cellX;
+        public final int cellY;
+        public final int cellSize;
+
+        public _DisplayCell(int borderX, int borderY, int borderSize) {
+            this.cellX = borderX + GraphicsConstants.CELL_LINE_WEIGHT;
+            this.cellY = GraphicsConstants.MAP_H - (borderY - GraphicsConstants.CELL_LINE_WEIGHT);
+            this.cellSize = borderSize - (GraphicsConstants.CELL_LINE_WEIGHT * 2);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package robot;
+
+import robot.RobotConstants.MOVEMENT;
+import utils.CommMgr;
+import utils.SessionRecorder;
+import utils.SessionReplayer;
+
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Queue;
+
+// @formatter:off
+/**
+ * Estimates how long the robot takes for each movement, in milliseconds.
+ *
+ *   forward(n)   = forwardBase + n * forwardPerCell     (n cells in one go; the robot accelerates)
+ *   backward     = one cell in reverse
+ *   turn         = one 90 degree turn
+ *   calibrate    = one calibration
+ *
+ * The parameters are fitted from recorded sessions (see fit()), using the time between each INSTR and the SDATA
+ * that answers it. The time between BOT_START and its SDATA, when no movement happens, is taken as the sensing and
+ * link overhead and subtracted. Models are saved as properties files; -Dmdp.timing=<file> makes the planner and the
+ * simulated clock use one.
+ */
+// @formatter:on
+
+public class MovementTimingModel {
+    /**
+     * The hand-picked planner costs, used when no model has been fitted. One cell forward costs MOVE_COST, of which
+     * MOVE_START_COST is paid only once per run.
+     */
+    public static final MovementTimingModel DEFAULT = new MovementTimingModel(RobotConstants.MOVE_START_COST, RobotConstants.MOVE_COST - RobotConstants.MOVE_START_COST, RobotConstants.BACKWARD_COST, RobotConstants.TURN_COST, RobotConstants.TURN_COST);
+
+    private static final double MIN_TIME = 1;       // lower bound of fitted times (ms)
+
+    private static MovementTimingModel configured;
+    private static boolean configuredLoaded;
+
+    private final double forwardBase;
+    private final double forwardPerCell;
+    private final double backward;
+    private final double turn;
+    private final double calibrate;
+
+    /**
+     * Creates a model in which reversing one cell takes as long as moving forward one cell.
+     */
+    public MovementTimingModel(double forwardBase, double forwardPerCell, double turn, double calibrate) {
+        this(forwardBase, forwardPerCell, forwardBase + forwardPerCell, turn, calibrate);
+    }
+
+    public MovementTimingModel(double forwardBase, double forwardPerCell, double backward, double turn, double calibrate) {
+        this.forwardBase = forwardBase;
+        this.forwardPerCell = forwardPerCell;
+        this.backward = backward;
+        this.turn = turn;
+        this.calibrate = calibrate;
+    }
+
+    /**
+     * Returns the model given by -Dmdp.timing, or null if none is set or it cannot be loaded.
+     */
+    public static synchronized MovementTimingModel getConfigured() {
+        if (!configuredLoaded) {
+            configuredLoaded = true;
+            String filename = System.getProperty("mdp.timing");
+            if (filename != null) {
+                try {
+                    configured = load(filename);
+                } catch (IOException e) {
+                    System.out.println("MovementTimingModel.getConfigured() --> IOException");
+                }
+            }
+        }
+        return configured;
+    }
+
+    public double getForwardBase() {
+        return forwardBase;
+    }
+
+    public double getForwardPerCell() {
+        return forwardPerCell;
+    }
+
+    public double getBackward() {
+        return backward;
+    }
+
+    public double getTurn() {
+        return turn;
+    }
+
+    public double getCalibrate() {
+        return calibrate;
+    }
+
+    /**
+     * Returns the time to move forward the given number of cells in one go.
+     */
+    public double getForwardTime(int cells) {
+        return cells <= 0 ? 0 : forwardBase + cells * forwardPerCell;
+    }
+
+    /**
+     * Returns the time for count consecutive executions of a movement. Consecutive forward steps are a single run;
+     * the robot reverses one cell at a time.
+     */
+    public double getDuration(MOVEMENT m, int count) {
+        switch (m) {
+            case FORWARD:
+                return getForwardTime(count);
+            case BACKWARD:
+                return count * backward;
+            case RIGHT:
+            case LEFT:
+                return count * turn;
+            case CALIBRATE:
+                return count * calibrate;
+            default:
+                return 0;
+        }
+    }
+
+    public static MovementTimingModel load(String filename) throws IOException {
+        Properties props = new Properties();
+        try (InputStream in = new FileInputStream(filename)) {
+            props.load(in);
+        }
+        double forwardBase = Double.parseDouble(props.getProperty("forward.base", Double.toString(DEFAULT.forwardBase)));
+        double forwardPerCell = Double.parseDouble(props.getProperty("forward.perCell", Double.toString(DEFAULT.forwardPerCell)));
+        double backward = Double.parseDouble(props.getProperty("backward", Double.toString(forwardBase + forwardPerCell)));
+        return new MovementTimingModel(forwardBase, forwardPerCell, backward, Double.parseDouble(props.getProperty("turn", Double.toString(DEFAULT.turn))), Double.parseDouble(props.getProperty("calibrate", Double.toString(DEFAULT.calibrate))));
+    }
+
+    public void save(String filename) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("forward.base", Double.toString(forwardBase));
+        props.setProperty("forward.perCell", Double.toString(forwardPerCell));
+        props.setProperty("backward", Double.toString(backward));
+        props.setProperty("turn", Double.toString(turn));
+        props.setProperty("calibrate", Double.toString(calibrate));
+        try (OutputStream out = new FileOutputStream(filename)) {
+            props.store(out, "Movement timing model (ms)");
+        }
+    }
+
+    /**
+     * Fits a model to the INSTR --> SDATA times of the given recorded sessions. Movements without any samples keep
+     * their DEFAULT values, except that reversing then takes as long as one cell forward.
+     */
+    public static MovementTimingModel fit(List<SessionReplayer> sessions) {
+        List<double[]> forwards = new ArrayList<>();    // [cells, ms]
+        List<Double> backwards = new ArrayList<>();
+        List<Double> turns = new ArrayList<>();
+        List<Double> calibrations = new ArrayList<>();
+        List<Double> overheads = new ArrayList<>();
+
+        for (SessionReplayer session : sessions) {
+            Queue<Object[]> pending = new ArrayDeque<>();   // [msg (null for BOT_START), sent us]
+            for (SessionReplayer.Entry e : session.getEntries()) {
+                if (e.direction == SessionRecorder.SENT) {
+                    if (e.first.equals(CommMgr.INSTRUCTIONS)) pending.add(new Object[]{e.second, e.micros});
+                    else if (e.first.equals(CommMgr.BOT_START)) pending.add(new Object[]{null, e.micros});
+                } else if (e.first.startsWith(CommMgr.SENSOR_DATA) && !pending.isEmpty()) {
+                    Object[] request = pending.poll();
+                    String instr = (String) request[0];
+                    double ms = (e.micros - (Long) request[1]) / 1000.0;
+
+                    if (instr == null || instr.isEmpty()) {
+                        overheads.add(ms);
+                    } else if (Character.isDigit(instr.charAt(0))) {
+                        int cells = instr.charAt(0) - '0';
+                        forwards.add(new double[]{cells == 0 ? 10 : cells, ms});
+                    } else {
+                        MOVEMENT m = MOVEMENT.parse(instr.charAt(0));
+                        if (m == MOVEMENT.FORWARD) forwards.add(new double[]{1, ms});
+                        else if (m == MOVEMENT.BACKWARD) backwards.add(ms);
+                        else if (m == MOVEMENT.RIGHT || m == MOVEMENT.LEFT) turns.add(ms);
+                        else if (m == MOVEMENT.CALIBRATE) calibrations.add(ms);
+                    }
+                }
+            }
+        }
+
+        double overhead = overheads.isEmpty() ? 0 : mean(overheads);
+        System.out.println("Fitting " + forwards.size() + " forward, " + backwards.size() + " backward, " + turns.size() + " turn and " + calibrations.size() + " calibrate samples (overhead " + Math.round(overhead) + " ms)");
+
+        double base = DEFAULT.forwardBase, perCell = DEFAULT.forwardPerCell;
+        if (!forwards.isEmpty()) {
+            // Least squares fit of ms = base + perCell * cells.
+            double n = forwards.size(), sx = 0, sy = 0, sxx = 0, sxy = 0;
+            for (double[] f : forwards) {
+                double y = Math.max(0, f[1] - overhead);
+                sx += f[0];
+                sy += y;
+                sxx += f[0] * f[0];
+                sxy += f[0] * y;
+            }
+            double denom = n * sxx - sx * sx;
+            if (denom > 1e-9) {
+                perCell = (n * sxy - sx * sy) / denom;
+                base = (sy - perCell * sx) / n;
+            }
+            if (denom <= 1e-9 || perCell <= 0 || base < 0) {
+                // All runs of the same length (or a nonsensical fit): charge the average per cell.
+                base = 0;
+                perCell = sy / sx;
+            }
+        }
+        double backward = backwards.isEmpty() ? base + perCell : mean(backwards) - overhead;
+        double turn = turns.isEmpty() ? DEFAULT.turn : mean(turns) - overhead;
+        double calibrate = calibrations.isEmpty() ? DEFAULT.calibrate : mean(calibrations) - overhead;
+
+        // Movements cannot be free, or the planner would take arbitrary detours.
+        base = Math.max(0, base);
+        perCell = Math.max(MIN_TIME, perCell);
+        backward = Math.max(MIN_TIME, backward);
+        turn = Math.max(MIN_TIME, turn);
+        calibrate = Math.max(MIN_TIME, calibrate);
+
+        return new MovementTimingModel(base, perCell, backward, turn, calibrate);
+    }
+
+    private static double mean(List<Double> values) {
+        double sum = 0;
+        for (double v : values) sum += v;
+        return sum / values.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("forward(n) = %.1f + %.1f n ms, backward = %.1f ms, turn = %.1f ms, calibrate = %.1f ms", forwardBase, forwardPerCell, backward, turn, calibrate);
+    }
+}
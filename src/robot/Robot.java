@@ -4,10 +4,16 @@ import map.Map;
 import map.MapConstants;
 import robot.RobotConstants.DIRECTION;
 import robot.RobotConstants.MOVEMENT;
+import utils.Clock;
 import utils.CommMgr;
 import utils.MapDescriptor;
+import utils.SensorDataParser;
+import utils.VirtualClock;
+import utils.WallClock;
 
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 // @formatter:off
 /**
@@ -31,6 +37,8 @@ public class Robot {
     private int posCol; // center cell
     private DIRECTION robotDir;
     private int speed;
+    private Clock clock;
+    private MovementTimingModel timingModel;    // null = every movement takes speed ms
     private final Sensor SRFrontLeft;       // north-facing front-left SR
     private final Sensor SRFrontCenter;     // north-facing front-center SR
     private final Sensor SRFrontRight;      // north-facing front-right SR
@@ -38,15 +46,32 @@ public class Robot {
     private final Sensor SRRight;           // east-facing right SR
     private final Sensor LRLeft;            // west-facing left LR
     private boolean touchedGoal;
+    private int moveCount;
     private final boolean realBot;
+    private boolean verbose = true;         // print every movement and planning step
+    private final CommMgr comm;             // link to the real robot, null for a simulated one
+    private final int[] sensorReadings = new int[SensorDataParser.NUM_READINGS];
 
+    /**
+     * Creates a simulated robot, or a real one that talks over the process-wide CommMgr.
+     */
     public Robot(int row, int col, boolean realBot) {
+        this(row, col, realBot ? CommMgr.getCommMgr() : null);
+    }
+
+    /**
+     * Creates a real robot that talks over comm, or a simulated one if comm is null.
+     */
+    public Robot(int row, int col, CommMgr comm) {
         posRow = row;
         posCol = col;
         robotDir = RobotConstants.START_DIR;
         speed = RobotConstants.SPEED;
 
-        this.realBot = realBot;
+        this.comm = comm;
+        this.realBot = comm != null;
+        clock = realBot ? new WallClock() : new VirtualClock();
+        timingModel = MovementTimingModel.getConfigured();
 
         SRFrontLeft = new Sensor(RobotConstants.SENSOR_SHORT_RANGE_L, RobotConstants.SENSOR_SHORT_RANGE_H, this.posRow + 1, this.posCol - 1, this.robotDir, "SRFL");
         SRFrontCenter = new Sensor(RobotConstants.SENSOR_SHORT_RANGE_L, RobotConstants.SENSOR_SHORT_RANGE_H, this.posRow + 1, this.posCol, this.robotDir, "SRFC");
@@ -77,14 +102,76 @@ public class Robot {
         this.speed = speed;
     }
 
+    /**
+     * Sets the clock that simulated movements elapse on. Simulated robots use a VirtualClock by default; the
+     * simulator GUI switches to the WallClock to animate the run.
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets the timing model used for simulated movement durations and by the planners. With null (the default unless
+     * -Dmdp.timing is given), every simulated movement takes speed ms.
+     */
+    public void setTimingModel(MovementTimingModel timingModel) {
+        this.timingModel = timingModel;
+    }
+
+    /**
+     * Returns the timing model for planning, i.e. MovementTimingModel.DEFAULT if none is set.
+     */
+    public MovementTimingModel getTimingModel() {
+        return timingModel != null ? timingModel : MovementTimingModel.DEFAULT;
+    }
+
+    /**
+     * Returns a model of the movement durations in ms: the timing model if one is set, otherwise speed ms per
+     * movement. Unlike getTimingModel(), this is meant for estimating how long a route takes.
+     */
+    public MovementTimingModel getDurationModel() {
+        return timingModel != null ? timingModel : new MovementTimingModel(0, speed, speed, speed);
+    }
+
+    /**
+     * Returns the simulated duration (ms) of count consecutive executions of a movement.
+     */
+    public long getMoveDuration(MOVEMENT m, int count) {
+        if (timingModel != null) return Math.round(timingModel.getDuration(m, count));
+        return (long) speed * count;
+    }
+
     public DIRECTION getRobotCurDir() {
         return robotDir;
     }
 
+    /**
+     * Returns the link to the real robot, or null for a simulated one.
+     */
+    public CommMgr getCommMgr() {
+        return comm;
+    }
+
     public boolean getRealBot() {
         return realBot;
     }
 
+    /**
+     * Enables or disables printing every movement to stdout. The algorithms working on this robot follow the same
+     * setting, and check it before building their messages.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+
     private void updateTouchedGoal() {
         if (this.getRobotPosRow() == MapConstants.GOAL_ROW && this.getRobotPosCol() == MapConstants.GOAL_COL)
             this.touchedGoal = true;
@@ -94,20 +181,34 @@ public class Robot {
         return this.touchedGoal;
     }
 
+    /**
+     * Returns the number of movement instructions executed so far. A multi-cell forward move counts once.
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
     /**
      * Takes in a MOVEMENT and moves the robot accordingly by changing its position and direction. Sends the movement
      * if this.realBot is set.
      */
     public void move(MOVEMENT m, boolean sendMoveToAndroid) {
-        if (!realBot) {
-            // Emulate real movement by pausing execution.
-            try {
-                TimeUnit.MILLISECONDS.sleep(speed);
-            } catch (InterruptedException e) {
-                System.out.println("Something went wrong in Robot.move()!");
-            }
-        }
+        // Emulate real movement by letting its duration pass on the clock.
+        if (!realBot) clock.elapse(getMoveDuration(m, 1));
+
+        updatePosition(m);
+        moveCount++;
+
+        if (realBot) sendMovement(m, sendMoveToAndroid);
+        else if (verbose) System.out.println("Move: " + MOVEMENT.print(m));
+
+        updateTouchedGoal();
+    }
 
+    /**
+     * Changes the robot's position and direction according to the given MOVEMENT.
+     */
+    private void updatePosition(MOVEMENT m) {
         switch (m) {
             case FORWARD:
                 switch (robotDir) {
@@ -151,11 +252,6 @@ public class Robot {
                 System.out.println("Error in Robot.move()!");
                 break;
         }
-
-        if (realBot) sendMovement(m, sendMoveToAndroid);
-        else System.out.println("Move: " + MOVEMENT.print(m));
-
-        updateTouchedGoal();
     }
 
     /**
@@ -166,47 +262,78 @@ public class Robot {
     }
 
     /**
-     * Sends a number instead of 'F' for multiple continuous forward movements.
+     * Moves forward count cells (1 to MAX_REPEAT) in one go. A real robot is sent a number instead of 'F' for multiple
+     * continuous forward movements, where "0" stands for 10.
      */
     public void moveForwardMultiple(int count) {
+        if (count < 1 || count > RobotConstants.MAX_REPEAT) {
+            throw new IllegalArgumentException("count must be in [1, " + RobotConstants.MAX_REPEAT + "]: " + count);
+        }
         if (count == 1) {
             move(MOVEMENT.FORWARD);
-        } else {
-            CommMgr comm = CommMgr.getCommMgr();
-            if (count == 10) {
-                comm.sendMsg("0", CommMgr.INSTRUCTIONS);
-            } else if (count < 10) {
-                comm.sendMsg(Integer.toString(count), CommMgr.INSTRUCTIONS);
-            }
+            return;
+        }
+
+        if (!realBot) clock.elapse(getMoveDuration(MOVEMENT.FORWARD, count));
+
+        for (int i = 0; i < count; i++) {
+            updatePosition(MOVEMENT.FORWARD);
+            updateTouchedGoal();
+        }
+        moveCount++;
+
+        if (realBot) {
+            comm.beginBatch();
+            comm.sendMsg(count == 10 ? "0" : Integer.toString(count), CommMgr.INSTRUCTIONS);
+            comm.sendMsg(getPosString(), CommMgr.BOT_POS);
+            comm.endBatch();
+        } else if (verbose) {
+            System.out.println("Move: " + MOVEMENT.print(MOVEMENT.FORWARD) + " x " + count);
+        }
+    }
 
-            switch (robotDir) {
-                case NORTH:
-                    posRow += count;
-                    break;
-                case EAST:
-                    posCol += count;
-                    break;
-                case SOUTH:
-                    posRow += count;
-                    break;
-                case WEST:
-                    posCol += count;
-                    break;
+    /**
+     * Executes a whole run-length-encoded route program (see RouteCompiler). The program and the robot positions
+     * after each of its instructions are sent to the robot and Android in a single write.
+     */
+    public void executeRoute(String program) {
+        List<String> botPositions = new ArrayList<>();
+
+        for (int i = 0; i < program.length(); i = RouteCompiler.nextInstruction(program, i)) {
+            MOVEMENT m = RouteCompiler.getMovement(program, i);
+            int count = RouteCompiler.getCount(program, i);
+            for (int j = 0; j < count; j++) {
+                updatePosition(m);
+                updateTouchedGoal();
             }
+            if (!realBot) clock.elapse(getMoveDuration(m, count));
+            moveCount++;
 
-            comm.sendMsg(this.getRobotPosRow() + "," + this.getRobotPosCol() + "," + DIRECTION.print(this.getRobotCurDir()), CommMgr.BOT_POS);
+            if (m != MOVEMENT.CALIBRATE) botPositions.add(getPosString());
         }
+
+        if (realBot) comm.sendRoute(program, botPositions);
+        else if (verbose) System.out.println("Route: " + program);
     }
 
     /**
-     * Uses the CommMgr to send the next movement to the robot.
+     * Uses the CommMgr to send the next movement to the robot. The instruction and position update go out in a
+     * single write.
      */
     private void sendMovement(MOVEMENT m, boolean sendMoveToAndroid) {
-        CommMgr comm = CommMgr.getCommMgr();
+        comm.beginBatch();
         comm.sendMsg(MOVEMENT.print(m) + "", CommMgr.INSTRUCTIONS);
         if (m != MOVEMENT.CALIBRATE && sendMoveToAndroid) {
-            comm.sendMsg(this.getRobotPosRow() + "," + this.getRobotPosCol() + "," + DIRECTION.print(this.getRobotCurDir()), CommMgr.BOT_POS);
+            comm.sendMsg(getPosString(), CommMgr.BOT_POS);
         }
+        comm.endBatch();
+    }
+
+    /**
+     * Returns the robot's position in the "row,col,dir" format expected by Android.
+     */
+    private String getPosString() {
+        return this.getRobotPosRow() + "," + this.getRobotPosCol() + "," + DIRECTION.print(this.getRobotCurDir());
     }
 
     /**
@@ -261,13 +388,22 @@ public class Robot {
         }
     }
 
+    /**
+     * Returns the robot's sensors, positioned as of the last setSensors().
+     */
+    public Sensor[] getSensors() {
+        return new Sensor[]{SRFrontLeft, SRFrontCenter, SRFrontRight, SRLeft, SRRight, LRLeft};
+    }
+
     /**
      * Calls the .sense() method of all the attached sensors and stores the received values in an integer array.
      *
+     * The returned array is reused by subsequent calls.
+     *
      * @return [SRFrontLeft, SRFrontCenter, SRFrontRight, SRLeft, SRRight, LRLeft]
      */
     public int[] sense(Map explorationMap, Map realMap) {
-        int[] result = new int[6];
+        int[] result = sensorReadings;
 
         if (!realBot) {
             result[0] = SRFrontLeft.sense(explorationMap, realMap);
@@ -277,17 +413,12 @@ public class Robot {
             result[4] = SRRight.sense(explorationMap, realMap);
             result[5] = LRLeft.sense(explorationMap, realMap);
         } else {
-            CommMgr comm = CommMgr.getCommMgr();
             String msg = comm.recvMsg();
-            String[] msgArr = msg.split(";");
-
-            if (msgArr[0].equals(CommMgr.SENSOR_DATA)) {
-                result[0] = Integer.parseInt(msgArr[1].split("_")[1]);
-                result[1] = Integer.parseInt(msgArr[2].split("_")[1]);
-                result[2] = Integer.parseInt(msgArr[3].split("_")[1]);
-                result[3] = Integer.parseInt(msgArr[4].split("_")[1]);
-                result[4] = Integer.parseInt(msgArr[5].split("_")[1]);
-                result[5] = Integer.parseInt(msgArr[6].split("_")[1]);
+
+            // A reading of 0 leaves the map untouched, so malformed packets are simply ignored.
+            if (!SensorDataParser.parse(msg, result)) {
+                System.out.println("Malformed sensor data: " + msg);
+                Arrays.fill(result, 0);
             }
 
             SRFrontLeft.senseReal(explorationMap, result[0]);
@@ -297,8 +428,8 @@ public class Robot {
             SRRight.senseReal(explorationMap, result[4]);
             LRLeft.senseReal(explorationMap, result[5]);
 
-            String[] mapStrings = MapDescriptor.generateMapDescriptor(explorationMap);
-            comm.sendMsg(mapStrings[0] + " " + mapStrings[1], CommMgr.MAP_STRINGS);
+            String[] mapStrings = MapDescriptor.generateMapDescriptor(explorationMap, verbose);
+            comm.queueMsg(mapStrings[0] + " " + mapStrings[1], CommMgr.MAP_STRINGS);
         }
 
         return result;
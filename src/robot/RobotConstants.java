@@ -9,8 +9,11 @@ public class RobotConstants {
     public static final int GOAL_COL = 13;                          // col no. of goal cell
     public static final int START_ROW = 1;                          // row no. of start cell
     public static final int START_COL = 1;                          // col no. of start cell
-    public static final int MOVE_COST = 10;                         // cost of FORWARD, BACKWARD movement
+    public static final int MOVE_COST = 10;                         // cost of FORWARD movement
+    public static final int MOVE_START_COST = 4;                    // part of MOVE_COST paid once per forward run
+    public static final int BACKWARD_COST = 15;                     // cost of BACKWARD movement
     public static final int TURN_COST = 20;                         // cost of RIGHT, LEFT movement
+    public static final int MAX_REPEAT = 10;                        // most repeats of a movement in one instruction
     public static final int SPEED = 100;                            // delay between movements (ms)
     public static final DIRECTION START_DIR = DIRECTION.NORTH;      // start direction
     public static final int SENSOR_SHORT_RANGE_L = 1;               // range of short range sensor (cells)
@@ -21,14 +24,45 @@ public class RobotConstants {
     public static final int INFINITE_COST = 9999;
 
     public enum DIRECTION {
-        NORTH, EAST, SOUTH, WEST;
+        NORTH(1, 0), EAST(0, 1), SOUTH(-1, 0), WEST(0, -1);
+
+        private static final DIRECTION[] VALUES = values();
+
+        private final int rowStep;
+        private final int colStep;
+
+        DIRECTION(int rowStep, int colStep) {
+            this.rowStep = rowStep;
+            this.colStep = colStep;
+        }
+
+        /**
+         * Returns the change in row of one cell forward in this direction.
+         */
+        public int getRowStep() {
+            return rowStep;
+        }
+
+        /**
+         * Returns the change in column of one cell forward in this direction.
+         */
+        public int getColStep() {
+            return colStep;
+        }
+
+        /**
+         * Returns the direction with the given ordinal, without copying values().
+         */
+        public static DIRECTION get(int ordinal) {
+            return VALUES[ordinal];
+        }
 
         public static DIRECTION getNext(DIRECTION curDirection) {
-            return values()[(curDirection.ordinal() + 1) % values().length];
+            return VALUES[(curDirection.ordinal() + 1) % VALUES.length];
         }
 
         public static DIRECTION getPrevious(DIRECTION curDirection) {
-            return values()[(curDirection.ordinal() + values().length - 1) % values().length];
+            return VALUES[(curDirection.ordinal() + VALUES.length - 1) % VALUES.length];
         }
 
         public static char print(DIRECTION d) {
@@ -67,5 +101,22 @@ public class RobotConstants {
                     return 'E';
             }
         }
+
+        public static MOVEMENT parse(char c) {
+            switch (c) {
+                case 'F':
+                    return FORWARD;
+                case 'B':
+                    return BACKWARD;
+                case 'R':
+                    return RIGHT;
+                case 'L':
+                    return LEFT;
+                case 'C':
+                    return CALIBRATE;
+                default:
+                    return ERROR;
+            }
+        }
     }
 }
@@ -0,0 +1,72 @@
+package robot;
+
+import robot.RobotConstants.MOVEMENT;
+
+import java.util.List;
+
+// @formatter:off
+/**
+ * Compiles a list of movements into a compact run-length-encoded instruction program so that a whole route can be
+ * sent to the robot in a single message.
+ *
+ * Each instruction is a movement character followed by an optional repeat count, e.g.
+ *
+ *   F F F F R F F L L F  -->  F4RF2L2F
+ *
+ * The Arduino repeats an instruction at most MAX_REPEAT (10) times, so longer runs are split:
+ *
+ *   17 x F               -->  F10F7
+ */
+// @formatter:on
+
+public class RouteCompiler {
+    /**
+     * Returns the run-length-encoded program for the given movements.
+     */
+    public static String compile(List<MOVEMENT> movements) {
+        StringBuilder program = new StringBuilder();
+
+        int i = 0;
+        while (i < movements.size()) {
+            MOVEMENT m = movements.get(i);
+            int count = 1;
+            while (i + count < movements.size() && movements.get(i + count) == m && count < RobotConstants.MAX_REPEAT) {
+                count++;
+            }
+
+            program.append(MOVEMENT.print(m));
+            if (count > 1) program.append(count);
+
+            i += count;
+        }
+
+        return program.toString();
+    }
+
+    /**
+     * Returns the movement of the instruction starting at program[index].
+     */
+    public static MOVEMENT getMovement(String program, int index) {
+        return MOVEMENT.parse(program.charAt(index));
+    }
+
+    /**
+     * Returns the repeat count of the instruction starting at program[index].
+     */
+    public static int getCount(String program, int index) {
+        int count = 0;
+        for (int i = index + 1; i < program.length() && Character.isDigit(program.charAt(i)); i++) {
+            count = count * 10 + (program.charAt(i) - '0');
+        }
+        return count == 0 ? 1 : count;
+    }
+
+    /**
+     * Returns the index of the instruction following the one starting at program[index].
+     */
+    public static int nextInstruction(String program, int index) {
+        int i = index + 1;
+        while (i < program.length() && Character.isDigit(program.charAt(i))) i++;
+        return i;
+    }
+}
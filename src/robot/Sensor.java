@@ -30,6 +30,26 @@ public class Sensor {
         this.sensorDir = dir;
     }
 
+    public int getLowerRange() {
+        return lowerRange;
+    }
+
+    public int getUpperRange() {
+        return upperRange;
+    }
+
+    public int getSensorPosRow() {
+        return sensorPosRow;
+    }
+
+    public int getSensorPosCol() {
+        return sensorPosCol;
+    }
+
+    public DIRECTION getSensorDir() {
+        return sensorDir;
+    }
+
     /**
      * Returns the number of cells to the nearest detected obstacle or -1 if no obstacle is detected.
      */
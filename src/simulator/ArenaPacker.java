@@ -0,0 +1,101 @@
+package simulator;
+
+import map.Arena;
+import map.ArenaGenerator;
+import utils.ArenaPack;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static utils.MapDescriptor.loadArena;
+
+// @formatter:off
+/**
+ * Converts between arena packs (see ArenaPack) and the maps/<name>.txt text format.
+ *
+ * Usage:
+ *   java simulator.ArenaPacker pack <pack> <arena file | directory>...   the text files (.txt in directories) to a pack
+ *   java simulator.ArenaPacker unpack <pack> <directory>                 a pack to one <name>.txt per arena
+ *   java simulator.ArenaPacker generate <pack> <count> [seed]            count random arenas (ArenaGenerator) to a pack
+ *   java simulator.ArenaPacker list <pack>                               the arenas in a pack
+ *
+ * Packed arenas keep the name they had: the path of their text file, or gen-<seed>-<index>. Unpacking writes each to
+ * the file name of its name, so a pack made from a directory unpacks to the same files. Unpacking fails, before any
+ * file is written, if two arenas would get the same file name.
+ */
+// @formatter:on
+
+public class ArenaPacker {
+    public static final String PACK_SUFFIX = ".pack";
+
+    public static void main(String[] args) throws IOException {
+        String command = args.length > 0 ? args[0] : "";
+        if (command.equals("pack") && args.length >= 3) {
+            pack(args[1], Arrays.asList(args).subList(2, args.length));
+        } else if (command.equals("unpack") && args.length == 3) {
+            unpack(args[1], args[2]);
+        } else if (command.equals("generate") && (args.length == 3 || args.length == 4)) {
+            ArenaGenerator generator = new ArenaGenerator(args.length == 4 ? Long.parseLong(args[3]) : 0);
+            List<Arena> arenas = generator.stream(Integer.parseInt(args[2])).collect(Collectors.toList());
+            ArenaPack.write(args[1], arenas);
+            System.out.println(arenas.size() + " arenas saved to " + args[1]);
+        } else if (command.equals("list") && args.length == 2) {
+            ArenaPack pack = ArenaPack.open(args[1]);
+            pack.stream().forEach(System.out::println);
+            System.out.println(pack.size() + " arenas");
+        } else {
+            System.out.println("Usage: ArenaPacker pack <pack> <arena file | directory>... | unpack <pack> <directory> | generate <pack> <count> [seed] | list <pack>");
+        }
+    }
+
+    private static void pack(String path, List<String> inputs) throws IOException {
+        List<Arena> arenas = new ArrayList<>();
+        for (String input : inputs) {
+            File file = new File(input);
+            if (file.isDirectory()) {
+                File[] files = file.listFiles((dir, name) -> name.endsWith(".txt"));
+                if (files == null) continue;
+                Arrays.sort(files);
+                for (File f : files) arenas.add(loadArena(f.getPath()));
+            } else {
+                arenas.add(loadArena(input));
+            }
+        }
+
+        ArenaPack.write(path, arenas);
+        System.out.println(arenas.size() + " arenas saved to " + path);
+    }
+
+    private static void unpack(String path, String dir) throws IOException {
+        ArenaPack pack = ArenaPack.open(path);
+        File out = new File(dir);
+        if (!out.isDirectory() && !out.mkdirs()) throw new IOException("Cannot create " + dir);
+
+        // Arenas packed from different directories may share a file name; don't let one overwrite the other.
+        String[] names = new String[pack.size()];
+        HashMap<String, String> owners = new HashMap<>();       // file name --> arena name
+        for (int i = 0; i < names.length; i++) {
+            names[i] = getFileName(pack.getName(i));
+            String owner = owners.putIfAbsent(names[i], pack.getName(i));
+            if (owner != null) throw new IOException(owner + " and " + pack.getName(i) + " would both unpack to " + names[i]);
+        }
+
+        for (int i = 0; i < names.length; i++) {
+            try (FileWriter writer = new FileWriter(new File(out, names[i]))) {
+                writer.write(pack.get(i).toText());
+            }
+        }
+        System.out.println(pack.size() + " arenas saved to " + dir);
+    }
+
+    private static String getFileName(String arenaName) {
+        String name = new File(arenaName).getName();
+        return name.endsWith(".txt") ? name : name + ".txt";
+    }
+}
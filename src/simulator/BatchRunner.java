@@ -0,0 +1,343 @@
+package simulator;
+
+import algorithms.ExplorationAlgo;
+import algorithms.ExplorationStrategies;
+import algorithms.ExplorationStrategy;
+import algorithms.FastestPathAlgo;
+import map.Arena;
+import map.ArenaGenerator;
+import map.Map;
+import map.MapConstants;
+import robot.Robot;
+import robot.RobotConstants;
+import robot.RobotConstants.MOVEMENT;
+import utils.ArenaPack;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static utils.MapDescriptor.loadArena;
+
+// @formatter:off
+/**
+ * Runs exploration followed by the fastest path on many arenas without the GUI, and reports per-run results as CSV or
+ * JSON.
+ *
+ * Usage: java simulator.BatchRunner [options] <arena pack | arena file | directory | map name>...
+ *
+ *   -strategies <name>,...   exploration strategies to compare (default: all, see ExplorationStrategies)
+ *   -time <seconds>          exploration time limit (default 3600)
+ *   -coverage <cells>        exploration coverage limit (default 300)
+ *   -threads <n>             runs in parallel (default: number of processors)
+ *   -format csv|json         output format (default csv)
+ *   -out <file>              write the results to a file instead of the console
+ *   -generate <count>        add count random arenas (see ArenaGenerator), configured by
+ *     -seed <n>                (default 0)
+ *     -density <share>         (default 0.1)
+ *     -clustering <chance>     (default 0.3)
+ *     -corridors <walls>       (default 2)
+ *
+ * A .pack file contributes all its arenas (see ArenaPack), a directory all its .txt arena files; a name that is none
+ * of these is looked up as maps/<name>.txt. Arenas are read or generated by the run that needs them, so they are
+ * never all in memory at once. Every strategy runs on every arena. Each run is a Session of its own (robot, maps and
+ * virtual clock), so runs are independent and the simulated times do not depend on the load of the machine.
+ *
+ * Columns:
+ *   cells             cells explored
+ *   exploreMoves      movement instructions during exploration, including the way back to START
+ *   exploreSimMs      simulated exploration time
+ *   exploreWallMs     computation time of the exploration
+ *   fpReached         the fastest path got to GOAL on the explored map
+ *   fpMoves           movement instructions of the fastest path
+ *   fpSimMs           simulated fastest path time
+ *   fpPlanUs          time to plan the fastest path (microseconds)
+ */
+// @formatter:on
+
+public class BatchRunner {
+    private static final String[] COLUMNS = {"arena", "strategy", "cells", "coverage", "exploreMoves", "exploreSimMs", "exploreWallMs", "loops", "fpReached", "fpMoves", "fpSimMs", "fpPlanUs", "error"};
+
+    /**
+     * An arena to run on, loaded on demand.
+     */
+    private static class Source {
+        final String name;
+        final Callable<Arena> loader;
+
+        Source(String name, Callable<Arena> loader) {
+            this.name = name;
+            this.loader = loader;
+        }
+    }
+
+    /**
+     * The outcome of one run.
+     */
+    private static class Result {
+        String arena;
+        String strategy;
+        int cells;
+        int exploreMoves;
+        long exploreSimMs;
+        long exploreWallMs;
+        int loops;
+        boolean fpReached;
+        int fpMoves;
+        long fpSimMs;
+        long fpPlanUs;
+        String error = "";
+
+        Object[] getValues() {
+            return new Object[]{arena, strategy, cells, Math.round(cells * 10000.0 / MapConstants.MAP_SIZE) / 100.0, exploreMoves, exploreSimMs, exploreWallMs, loops, fpReached, fpMoves, fpSimMs, fpPlanUs, error};
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> strategies = ExplorationStrategies.getNames();
+        int timeLimit = 3600;
+        int coverageLimit = 300;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String format = "csv";
+        String outFile = null;
+        int generate = 0;
+        long seed = 0;
+        double density = 0.1, clustering = 0.3;
+        int corridors = 2;
+        List<Source> arenas = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            boolean hasValue = i + 1 < args.length;
+            if (arg.equals("-strategies") && hasValue) {
+                strategies = Arrays.asList(args[++i].toLowerCase().split(","));
+            } else if (arg.equals("-time") && hasValue) {
+                timeLimit = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-coverage") && hasValue) {
+                coverageLimit = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-threads") && hasValue) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-format") && hasValue) {
+                format = args[++i].toLowerCase();
+            } else if (arg.equals("-out") && hasValue) {
+                outFile = args[++i];
+            } else if (arg.equals("-generate") && hasValue) {
+                generate = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-seed") && hasValue) {
+                seed = Long.parseLong(args[++i]);
+            } else if (arg.equals("-density") && hasValue) {
+                density = Double.parseDouble(args[++i]);
+            } else if (arg.equals("-clustering") && hasValue) {
+                clustering = Double.parseDouble(args[++i]);
+            } else if (arg.equals("-corridors") && hasValue) {
+                corridors = Integer.parseInt(args[++i]);
+            } else {
+                addArenas(arenas, arg);
+            }
+        }
+
+        if (generate > 0) {
+            ArenaGenerator generator = new ArenaGenerator(seed);
+            generator.setDensity(density);
+            generator.setClustering(clustering);
+            generator.setCorridors(corridors);
+            for (int i = 0; i < generate; i++) {
+                final int index = i;
+                arenas.add(new Source(generator.getName(index), () -> generator.generate(index)));
+            }
+        }
+
+        if (arenas.isEmpty() || !(format.equals("csv") || format.equals("json"))) {
+            System.out.println("Usage: BatchRunner [-strategies <name>,...] [-time <seconds>] [-coverage <cells>] [-threads <n>] [-format csv|json] [-out <file>] [-generate <count> [-seed <n>] [-density <share>] [-clustering <chance>] [-corridors <walls>]] [<arena pack | arena file | directory | map name>...]");
+            System.out.println("Strategies: " + ExplorationStrategies.getNames());
+            return;
+        }
+        for (String strategy : strategies) {
+            if (ExplorationStrategies.create(strategy) == null) {
+                System.out.println("Unknown exploration strategy " + strategy + " (one of " + ExplorationStrategies.getNames() + ")");
+                return;
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        List<Result> results = runAll(arenas, strategies, timeLimit, coverageLimit, threads);
+        long elapsed = System.currentTimeMillis() - start;
+
+        if (outFile == null) {
+            write(System.out, results, format);
+        } else {
+            try (PrintStream out = new PrintStream(new FileOutputStream(outFile))) {
+                write(out, results, format);
+            }
+            printSummary(results, strategies);
+            System.out.println(results.size() + " runs on " + threads + " threads in " + elapsed + " ms, results saved to " + outFile);
+        }
+    }
+
+    /**
+     * Adds the arenas of the pack, the arena file, the .txt files in the directory, or maps/<name>.txt.
+     */
+    private static void addArenas(List<Source> arenas, String arg) throws IOException {
+        File file = new File(arg);
+        if (arg.endsWith(ArenaPacker.PACK_SUFFIX)) {
+            ArenaPack pack = ArenaPack.open(arg);
+            for (int i = 0; i < pack.size(); i++) {
+                final int index = i;
+                arenas.add(new Source(pack.getName(i), () -> pack.get(index)));
+            }
+        } else if (file.isDirectory()) {
+            File[] files = file.listFiles((dir, name) -> name.endsWith(".txt"));
+            if (files == null) return;
+            Arrays.sort(files);
+            for (File f : files) addArena(arenas, f);
+        } else if (file.isFile() || arg.endsWith(".txt")) {
+            addArena(arenas, file);
+        } else {
+            addArena(arenas, new File("maps", arg + ".txt"));
+        }
+    }
+
+    private static void addArena(List<Source> arenas, File file) {
+        arenas.add(new Source(file.getPath(), () -> loadArena(file.getPath())));
+    }
+
+    /**
+     * Runs every strategy on every arena on a pool of the given size and returns the results in the same order.
+     */
+    private static List<Result> runAll(List<Source> arenas, List<String> strategies, int timeLimit, int coverageLimit, int threads) throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (Source arena : arenas) {
+                for (String strategy : strategies) {
+                    futures.add(pool.submit(() -> run(arena, strategy, timeLimit, coverageLimit)));
+                }
+            }
+
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    // run() catches its own failures.
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Explores the arena with the strategy, then runs the fastest path from START to GOAL on the explored map, as the
+     * simulator would on its virtual clock.
+     */
+    private static Result run(Source arena, String strategyName, int timeLimit, int coverageLimit) {
+        Result result = new Result();
+        result.arena = arena.name;
+        result.strategy = strategyName;
+
+        try {
+            Session session = new Session();
+            session.setVerbose(false);  // the runs interleave, and only the results are reported
+            arena.loader.call().applyTo(session.getRealMap());
+            Robot bot = session.getBot();
+            Map exploredMap = session.getExploredMap();
+
+            ExplorationStrategy strategy = ExplorationStrategies.create(strategyName);
+            ExplorationAlgo exploration = session.createExploration(coverageLimit, timeLimit);
+            exploration.setStrategy(strategy);
+
+            long wallStart = System.nanoTime();
+            long simStart = bot.getClock().currentTimeMillis();
+            exploration.runExploration();
+            result.exploreWallMs = (System.nanoTime() - wallStart) / 1000000;
+            result.exploreSimMs = bot.getClock().currentTimeMillis() - simStart;
+            result.exploreMoves = bot.getMoveCount();
+            result.loops = exploration.getLoopsDetected();
+            for (int r = 0; r < MapConstants.MAP_ROWS; r++) {
+                for (int c = 0; c < MapConstants.MAP_COLS; c++) {
+                    if (exploredMap.getCell(r, c).getIsExplored()) result.cells++;
+                }
+            }
+
+            session.resetBot();
+            FastestPathAlgo fastestPath = session.createFastestPath();
+
+            long planStart = System.nanoTime();
+            List<MOVEMENT> movements = fastestPath.planPath(RobotConstants.GOAL_ROW, RobotConstants.GOAL_COL);
+            result.fpPlanUs = (System.nanoTime() - planStart) / 1000;
+
+            if (movements != null) {
+                int movesBefore = bot.getMoveCount();
+                simStart = bot.getClock().currentTimeMillis();
+                fastestPath.executeMovements(movements);
+                result.fpSimMs = bot.getClock().currentTimeMillis() - simStart;
+                result.fpMoves = bot.getMoveCount() - movesBefore;
+                result.fpReached = bot.getRobotPosRow() == RobotConstants.GOAL_ROW && bot.getRobotPosCol() == RobotConstants.GOAL_COL;
+            }
+        } catch (Exception e) {
+            result.error = e.toString();
+        }
+        return result;
+    }
+
+    private static void write(PrintStream out, List<Result> results, String format) {
+        if (format.equals("json")) {
+            out.println("[");
+            for (int i = 0; i < results.size(); i++) {
+                Object[] values = results.get(i).getValues();
+                StringBuilder sb = new StringBuilder("  {");
+                for (int j = 0; j < COLUMNS.length; j++) {
+                    if (j > 0) sb.append(", ");
+                    sb.append('"').append(COLUMNS[j]).append("\": ");
+                    if (values[j] instanceof String) {
+                        sb.append('"').append(escapeJson((String) values[j])).append('"');
+                    } else {
+                        sb.append(values[j]);
+                    }
+                }
+                out.println(sb.append(i < results.size() - 1 ? "}," : "}"));
+            }
+            out.println("]");
+        } else {
+            out.println(String.join(",", COLUMNS));
+            for (Result r : results) {
+                StringBuilder sb = new StringBuilder();
+                for (Object value : r.getValues()) {
+                    if (sb.length() > 0) sb.append(',');
+                    sb.append(escapeCsv(String.valueOf(value)));
+                }
+                out.println(sb);
+            }
+        }
+    }
+
+    private static void printSummary(List<Result> results, List<String> strategies) {
+        for (String strategy : strategies) {
+            List<Result> runs = results.stream().filter(r -> r.strategy.equals(strategy) && r.error.isEmpty()).toList();
+            System.out.printf("%-12s %d runs, average %.1f cells, %.1f s exploration, %.1f s fastest path, %d failed%n", strategy, runs.size(),
+                    runs.stream().mapToInt(r -> r.cells).average().orElse(0),
+                    runs.stream().mapToLong(r -> r.exploreSimMs).average().orElse(0) / 1000,
+                    runs.stream().filter(r -> r.fpReached).mapToLong(r -> r.fpSimMs).average().orElse(0) / 1000,
+                    results.stream().filter(r -> r.strategy.equals(strategy) && !r.error.isEmpty()).count());
+        }
+    }
+
+    private static String escapeCsv(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    private static String escapeJson(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
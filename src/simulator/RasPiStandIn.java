@@ -0,0 +1,390 @@
+package simulator;
+
+import map.Map;
+import robot.MovementTimingModel;
+import robot.Robot;
+import robot.RobotConstants;
+import robot.RobotConstants.MOVEMENT;
+import utils.BinaryCodec;
+import utils.CommMgr;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static utils.MapDescriptor.loadMapFromDisk;
+
+// @formatter:off
+/**
+ * Local stand-in for the RasPi/Arduino side of the link, so that the real-bot code path can be run without hardware.
+ *
+ * It speaks the same TEXT and BINARY protocols as CommMgr, executes every INSTR/ROUTE on a virtual robot inside a
+ * loaded arena and answers each INSTR (and BOT_START) with simulated SDATA. Replies can be delayed by a fixed
+ * latency plus random jitter, and a dropped reply is delivered only after a retransmission timeout, as it would be
+ * over TCP. EX_START and FP_START are sent on behalf of Android whenever the PC has gone quiet.
+ *
+ * Both features the PC can offer in the PROTO handshake, BIN1 and HB, are accepted, and heartbeats are answered with
+ * HB_ACK. The session survives a lost connection: a PC that reconnects with RESUME n is told how many requests were
+ * executed and gets every SDATA from the n-th on again. With -disconnect, the link is dropped right after executing
+ * an instruction with the given probability, to exercise this path.
+ *
+ * With -timing, each reply is further delayed by the time the instruction takes according to a MovementTimingModel,
+ * so that recordings made against the stand-in carry realistic movement times.
+ *
+ * Usage:
+ *   java simulator.RasPiStandIn <map> [-port 8008] [-latency 0] [-jitter 0] [-drop 0.0] [-rto 200] [-idle 500]
+ *                                     [-disconnect 0.0] [-timing model.properties] [-seed 0]
+ *
+ * and start the Simulator with -Dmdp.realRun=true -Dmdp.host=localhost.
+ */
+// @formatter:on
+
+public class RasPiStandIn {
+    private final Map realMap;
+    private final int latency;          // fixed reply delay (ms)
+    private final int jitter;           // max additional random reply delay (ms)
+    private final double dropRate;      // probability that a reply needs to be retransmitted
+    private final int rto;              // retransmission delay of a dropped reply (ms)
+    private final int idleTimeout;      // quiet time before sending the next Android command (ms)
+    private final double disconnectRate;    // probability of dropping the link after an instruction
+    private final Random random;
+    private MovementTimingModel timingModel;
+
+    private Robot bot;
+    private Map scratchMap;
+    private boolean binary;
+    private final Queue<String> androidCmds = new ArrayDeque<>();
+    private final List<String> sensorReplies = new ArrayList<>();   // SDATA of every executed request, in order
+    private boolean sessionStarted;
+    private long lastActivityAt;
+
+    private ScheduledExecutorService replyScheduler;
+    private final AtomicInteger outstandingReplies = new AtomicInteger();
+    private long lastReplyAt;
+
+    private OutputStream out;
+    private BufferedReader textIn;
+    private DataInputStream binIn;
+    private final Queue<BinaryCodec.Frame> frames = new ArrayDeque<>();
+
+    public RasPiStandIn(Map realMap, int latency, int jitter, double dropRate, int rto, int idleTimeout, double disconnectRate, long seed) {
+        this.realMap = realMap;
+        this.latency = latency;
+        this.jitter = jitter;
+        this.dropRate = dropRate;
+        this.rto = rto;
+        this.idleTimeout = idleTimeout;
+        this.disconnectRate = disconnectRate;
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: RasPiStandIn <map> [-port n] [-latency ms] [-jitter ms] [-drop p] [-rto ms] [-idle ms] [-disconnect p] [-timing file] [-seed n]");
+            return;
+        }
+
+        int port = CommMgr.PORT, latency = 0, jitter = 0, rto = 200, idle = 500;
+        double drop = 0, disconnect = 0;
+        long seed = 0;
+        MovementTimingModel timingModel = null;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-latency":
+                    latency = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-jitter":
+                    jitter = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-drop":
+                    drop = Double.parseDouble(args[i + 1]);
+                    break;
+                case "-rto":
+                    rto = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-idle":
+                    idle = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-disconnect":
+                    disconnect = Double.parseDouble(args[i + 1]);
+                    break;
+                case "-timing":
+                    timingModel = MovementTimingModel.load(args[i + 1]);
+                    break;
+                case "-seed":
+                    seed = Long.parseLong(args[i + 1]);
+                    break;
+                default:
+                    System.out.println("Unknown option " + args[i]);
+                    return;
+            }
+        }
+
+        Robot dummy = new Robot(RobotConstants.START_ROW, RobotConstants.START_COL, false);
+        Map realMap = new Map(dummy);
+        loadMapFromDisk(realMap, args[0]);
+
+        RasPiStandIn standIn = new RasPiStandIn(realMap, latency, jitter, drop, rto, idle, disconnect, seed);
+        standIn.setTimingModel(timingModel);
+        standIn.serve(port);
+    }
+
+    /**
+     * Sets the model of how long the virtual robot takes to execute instructions, or null for no movement time.
+     */
+    public void setTimingModel(MovementTimingModel timingModel) {
+        this.timingModel = timingModel;
+    }
+
+    /**
+     * Accepts connections on the given port and serves them one at a time.
+     */
+    public void serve(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port)) {
+            System.out.println("RasPi stand-in listening on port " + port + "...");
+            while (true) {
+                try (Socket client = server.accept()) {
+                    System.out.println("Client connected: " + client.getRemoteSocketAddress());
+                    handle(client);
+                } catch (IOException e) {
+                    System.out.println("serve() --> IOException: " + e.getMessage());
+                }
+                System.out.println("Client disconnected.");
+            }
+        }
+    }
+
+    /**
+     * Starts a new session with the virtual robot back at the start position.
+     */
+    private void resetSession() {
+        bot = new Robot(RobotConstants.START_ROW, RobotConstants.START_COL, false);
+        bot.setSpeed(0);
+        bot.setTimingModel(timingModel);
+        scratchMap = new Map(bot);
+        androidCmds.clear();
+        androidCmds.add(CommMgr.EX_START);
+        androidCmds.add(CommMgr.FP_START);
+        sensorReplies.clear();
+    }
+
+    /**
+     * Serves the given connection until the PC disconnects. The session carries over to the next connection if that
+     * one starts with RESUME.
+     */
+    public void handle(Socket client) throws IOException {
+        binary = false;
+        sessionStarted = false;
+        frames.clear();
+        lastReplyAt = 0;
+        lastActivityAt = System.currentTimeMillis();
+        outstandingReplies.set(0);
+
+        out = new BufferedOutputStream(client.getOutputStream());
+        InputStream in = new BufferedInputStream(client.getInputStream());
+        textIn = new BufferedReader(new InputStreamReader(in, StandardCharsets.ISO_8859_1));
+        client.setSoTimeout(Math.max(1, idleTimeout / 4));
+        replyScheduler = Executors.newSingleThreadScheduledExecutor();
+
+        try {
+            while (true) {
+                BinaryCodec.Frame frame;
+                try {
+                    frame = readFrame();
+                } catch (SocketTimeoutException e) {
+                    // The PC is waiting for Android if it has gone quiet without any reply outstanding.
+                    boolean idle = System.currentTimeMillis() - lastActivityAt >= idleTimeout;
+                    if (idle && sessionStarted && outstandingReplies.get() == 0 && !androidCmds.isEmpty()) {
+                        reply(androidCmds.poll(), null, 0);
+                        lastActivityAt = System.currentTimeMillis();
+                    }
+                    continue;
+                }
+                if (frame == null) break;
+
+                if (!frame.msgType.equals(CommMgr.HEARTBEAT)) lastActivityAt = System.currentTimeMillis();
+                if (!process(frame)) {
+                    System.out.println("Dropping the link...");
+                    break;
+                }
+            }
+        } finally {
+            replyScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the next message from the PC, or null if the connection was closed.
+     */
+    private BinaryCodec.Frame readFrame() throws IOException {
+        if (binary) {
+            if (frames.isEmpty()) {
+                try {
+                    BinaryCodec.decode(binIn, frames);
+                } catch (EOFException e) {
+                    return null;
+                }
+            }
+            return frames.poll();
+        }
+
+        String line = textIn.readLine();
+        if (line == null) return null;
+        line = line.trim();
+        if (line.isEmpty()) return new BinaryCodec.Frame("", null);
+
+        // Mirrors CommMgr's text framing: "TYPE", "TYPE msg" or "TYPE\nmsg".
+        int space = line.indexOf(' ');
+        if (space > 0) return new BinaryCodec.Frame(line.substring(0, space), line.substring(space + 1));
+        if (line.equals(CommMgr.INSTRUCTIONS) || line.equals(CommMgr.ROUTE)) {
+            return new BinaryCodec.Frame(line, textIn.readLine());
+        }
+        return new BinaryCodec.Frame(line, null);
+    }
+
+    /**
+     * Executes a message from the PC and schedules the reply, if any. Returns false if the link should be dropped.
+     */
+    private boolean process(BinaryCodec.Frame frame) throws IOException {
+        if (!sessionStarted && !frame.msgType.equals(CommMgr.PROTOCOL) && !frame.msgType.equals(CommMgr.HEARTBEAT)) {
+            sessionStarted = true;
+            if (!frame.msgType.equals(CommMgr.RESUME) || bot == null) resetSession();
+        }
+
+        switch (frame.msgType) {
+            case CommMgr.PROTOCOL:
+                // Accept every offered feature that the stand-in knows.
+                List<String> accepted = new ArrayList<>();
+                for (String feature : (frame.msg == null ? "" : frame.msg).trim().split(" ")) {
+                    if (feature.equals(CommMgr.PROTOCOL_BINARY) || feature.equals(CommMgr.HEARTBEAT)) accepted.add(feature);
+                }
+                synchronized (this) {
+                    out.write((CommMgr.PROTOCOL + " " + String.join(" ", accepted) + "\n").getBytes(StandardCharsets.US_ASCII));
+                    out.flush();
+                }
+                if (accepted.contains(CommMgr.PROTOCOL_BINARY)) {
+                    // The handshake line was read through textIn, so nothing it buffered must be lost.
+                    binary = true;
+                    binIn = new DataInputStream(new ReaderInputStream(textIn));
+                }
+                break;
+            case CommMgr.INSTRUCTIONS:
+                String instr = frame.msg;
+                int count = BinaryCodec.getForwardCount(instr);
+                if (count < 0 || (count == 0 && (instr.length() != 1 || MOVEMENT.parse(instr.charAt(0)) == MOVEMENT.ERROR))) {
+                    System.out.println("Ignoring malformed instruction: " + instr);
+                    break;
+                }
+                if (count > 0) instr = "F" + count;
+                long startedAt = bot.getClock().currentTimeMillis();
+                bot.executeRoute(instr);
+                scheduleSensorData(bot.getClock().currentTimeMillis() - startedAt);
+                if (disconnectRate > 0 && random.nextDouble() < disconnectRate) return false;
+                break;
+            case CommMgr.ROUTE:
+                bot.executeRoute(frame.msg);
+                break;
+            case CommMgr.BOT_START:
+                scheduleSensorData(0);
+                break;
+            case CommMgr.HEARTBEAT:
+                reply(CommMgr.HEARTBEAT_ACK, null, latency);
+                break;
+            case CommMgr.RESUME:
+                int from;
+                try {
+                    from = frame.msg == null ? 0 : Integer.parseInt(frame.msg.trim());
+                } catch (NumberFormatException e) {
+                    System.out.println("Ignoring malformed RESUME: " + frame.msg);
+                    break;
+                }
+                System.out.println("Resuming session at request " + from + " of " + sensorReplies.size());
+                reply(CommMgr.RESUMED, Integer.toString(sensorReplies.size()), latency);
+                for (int i = Math.max(0, from); i < sensorReplies.size(); i++) {
+                    reply(CommMgr.SENSOR_DATA, sensorReplies.get(i), latency);
+                }
+                break;
+            default:
+                // BOT_POS and MAP are meant for Android.
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Senses the arena from the virtual robot's current pose and schedules the SDATA reply once the movement time
+     * (ms) has passed.
+     */
+    private void scheduleSensorData(long moveTime) {
+        bot.setSensors();
+        int[] readings = bot.sense(scratchMap, realMap);
+        String msg = "SRFL_" + readings[0] + ";SRFC_" + readings[1] + ";SRFR_" + readings[2] + ";SRL_" + readings[3] + ";SRR_" + readings[4] + ";LRL_" + readings[5];
+        sensorReplies.add(msg);
+
+        long delay = moveTime + latency;
+        if (jitter > 0) delay += random.nextInt(jitter + 1);
+        if (dropRate > 0 && random.nextDouble() < dropRate) delay += rto;
+
+        reply(CommMgr.SENSOR_DATA, msg, delay);
+    }
+
+    /**
+     * Sends a reply after the given delay. Replies are never reordered, as on a TCP connection.
+     */
+    private void reply(String msgType, String msg, long delay) {
+        long sendAt = Math.max(System.currentTimeMillis() + delay, lastReplyAt);
+        lastReplyAt = sendAt;
+
+        outstandingReplies.incrementAndGet();
+        replyScheduler.schedule(() -> {
+            try {
+                synchronized (this) {
+                    if (binary) {
+                        DataOutputStream dataOut = new DataOutputStream(out);
+                        BinaryCodec.encode(dataOut, msg, msgType);
+                        dataOut.flush();
+                    } else {
+                        String line = msg == null ? msgType : msgType + ";" + msg;
+                        out.write((line + "\n").getBytes(StandardCharsets.US_ASCII));
+                        out.flush();
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("reply() --> IOException");
+            } finally {
+                outstandingReplies.decrementAndGet();
+            }
+        }, sendAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adapts the (already buffering) reader back to a byte stream after switching to BINARY mode. Only valid for the
+     * ISO-8859-1 charset, in which every byte maps to exactly one char.
+     */
+    private static class ReaderInputStream extends InputStream {
+        private final Reader reader;
+
+        ReaderInputStream(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return reader.read();
+        }
+    }
+}
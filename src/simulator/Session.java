@@ -0,0 +1,92 @@
+package simulator;
+
+import algorithms.ExplorationAlgo;
+import algorithms.FastestPathAlgo;
+import map.Map;
+import robot.Robot;
+import robot.RobotConstants;
+import utils.CommMgr;
+
+/**
+ * One robot and everything that works on it: the link to the RasPi (none for a simulated robot), the robot, the real
+ * map (only for a simulated robot) and the explored map. The algorithms are created on the session's own objects.
+ *
+ * Sessions share no state, so one process can run several of them at once, e.g. the parallel runs of BatchRunner.
+ */
+
+public class Session {
+    private final CommMgr comm;         // null for a simulated robot
+    private final Robot bot;
+    private final Map realMap;          // null for the real robot
+    private final Map exploredMap;
+
+    /**
+     * Creates a session for a simulated robot, in an arena without obstacles until the real map is loaded.
+     */
+    public Session() {
+        this(null);
+    }
+
+    /**
+     * Creates a session for the real robot that talks over comm, or for a simulated robot if comm is null.
+     */
+    public Session(CommMgr comm) {
+        this.comm = comm;
+        bot = new Robot(RobotConstants.START_ROW, RobotConstants.START_COL, comm);
+
+        if (comm == null) {
+            realMap = new Map(bot);
+            realMap.setAllUnexplored();
+        } else {
+            realMap = null;
+        }
+
+        exploredMap = new Map(bot);
+        exploredMap.setAllUnexplored();
+    }
+
+    public CommMgr getCommMgr() {
+        return comm;
+    }
+
+    public Robot getBot() {
+        return bot;
+    }
+
+    public Map getRealMap() {
+        return realMap;
+    }
+
+    public Map getExploredMap() {
+        return exploredMap;
+    }
+
+    public boolean isReal() {
+        return comm != null;
+    }
+
+    /**
+     * Enables or disables printing every movement, planning step and message of this session to stdout.
+     */
+    public void setVerbose(boolean verbose) {
+        bot.setVerbose(verbose);
+        if (comm != null) comm.setVerbose(verbose);
+    }
+
+    /**
+     * Puts the robot back at START, facing its starting direction.
+     */
+    public void resetBot() {
+        bot.setRobotPos(RobotConstants.START_ROW, RobotConstants.START_COL);
+        bot.setRobotDir(RobotConstants.START_DIR);
+        exploredMap.repaint();
+    }
+
+    public ExplorationAlgo createExploration(int coverageLimit, int timeLimit) {
+        return new ExplorationAlgo(exploredMap, realMap, bot, coverageLimit, timeLimit);
+    }
+
+    public FastestPathAlgo createFastestPath() {
+        return new FastestPathAlgo(exploredMap, bot);
+    }
+}
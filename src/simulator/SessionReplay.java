@@ -0,0 +1,57 @@
+package simulator;
+
+import map.MapConstants;
+import robot.RobotConstants;
+import utils.CommMgr;
+import utils.SessionReplayer;
+
+import java.io.IOException;
+
+import static utils.MapDescriptor.generateMapDescriptor;
+
+// @formatter:off
+/**
+ * Replays a session recorded with -Dmdp.record=<file> through the real-bot code path (Robot.sense, ExplorationAlgo and
+ * FastestPathAlgo) without any hardware, e.g. to profile or regression-test a real run offline.
+ *
+ * Usage:
+ *   java simulator.SessionReplay <recording> [-fast]
+ *
+ * By default, received messages are delivered at their original time offsets; -fast delivers them immediately.
+ */
+// @formatter:on
+
+public class SessionReplay {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: SessionReplay <recording> [-fast]");
+            return;
+        }
+        boolean fast = args.length > 1 && args[1].equals("-fast");
+
+        SessionReplayer replayer = new SessionReplayer(args[0], !fast);
+        CommMgr comm = new CommMgr();
+        comm.openReplay(replayer);
+
+        long start = System.currentTimeMillis();
+
+        // Same sequence as Simulator's real run: exploration followed by the fastest path.
+        Session session = new Session(comm);
+
+        comm.sendMsg(null, CommMgr.BOT_START);
+        session.createExploration(MapConstants.MAP_SIZE, 3600).runExploration();
+        generateMapDescriptor(session.getExploredMap());
+
+        while (!replayer.isFinished()) {
+            String msg = comm.recvMsg();
+            if (CommMgr.FP_START.equals(msg)) {
+                session.getBot().setRobotPos(RobotConstants.START_ROW, RobotConstants.START_COL);
+                session.createFastestPath().runFastestPath(RobotConstants.GOAL_ROW, RobotConstants.GOAL_COL);
+                break;
+            }
+        }
+
+        System.out.println("Replay finished in " + (System.currentTimeMillis() - start) + " ms with " + replayer.getMismatches() + " mismatching messages.");
+        System.out.println(comm.getMetrics().report());
+    }
+}
@@ -3,10 +3,12 @@ package simulator;
 import algorithms.ExplorationAlgo;
 import algorithms.FastestPathAlgo;
 import map.Map;
+import map.MapPanel;
 import map.MapConstants;
 import robot.Robot;
 import robot.RobotConstants;
 import utils.CommMgr;
+import utils.WallClock;
 
 import javax.swing.*;
 import java.awt.*;
@@ -21,45 +23,55 @@ import static utils.MapDescriptor.loadMapFromDisk;
  */
 
 public class Simulator {
-    private static JFrame _appFrame = null;         // application JFrame
+    private JFrame _appFrame = null;                // application JFrame
 
-    private static JPanel _mapCards = null;         // JPanel for map views
-    private static JPanel _buttons = null;          // JPanel for buttons
+    private JPanel _mapCards = null;                // JPanel for map views
+    private JPanel _buttons = null;                 // JPanel for buttons
 
-    private static Robot bot;
+    private final Robot bot;
 
-    private static Map realMap = null;              // real map
-    private static Map exploredMap = null;          // exploration map
+    private final Map realMap;                      // real map, null for a real run
+    private final Map exploredMap;                  // exploration map
 
-    private static int timeLimit = 3600;            // time limit
-    private static int coverageLimit = 300;         // coverage limit
+    private int timeLimit = 3600;                   // time limit
+    private int coverageLimit = 300;                // coverage limit
 
-    private static final CommMgr comm = CommMgr.getCommMgr();
-    private static final boolean realRun = false;
+    private final CommMgr comm;                     // null unless realRun
+    private static final boolean realRun = Boolean.getBoolean("mdp.realRun");
 
     /**
-     * Initialises the different maps and displays the application.
+     * Initialises the session and displays the application.
      */
     public static void main(String[] args) {
-        if (realRun) comm.openConnection();
+        CommMgr comm = null;
+        if (realRun) {
+            comm = new CommMgr();
+            comm.openConnection();
 
-        bot = new Robot(RobotConstants.START_ROW, RobotConstants.START_COL, realRun);
-
-        if (!realRun) {
-            realMap = new Map(bot);
-            realMap.setAllUnexplored();
+            String recording = System.getProperty("mdp.record");
+            if (recording != null) comm.startRecording(recording);
         }
 
-        exploredMap = new Map(bot);
-        exploredMap.setAllUnexplored();
+        Session session = new Session(comm);
+        if (!realRun && !"virtual".equals(System.getProperty("mdp.clock"))) session.getBot().setClock(new WallClock());
+
+        new Simulator(session).displayEverything();
+    }
 
-        displayEverything();
+    /**
+     * Shows the robot and maps of the session.
+     */
+    public Simulator(Session session) {
+        bot = session.getBot();
+        realMap = session.getRealMap();
+        exploredMap = session.getExploredMap();
+        comm = session.getCommMgr();
     }
 
     /**
      * Initialises the different parts of the application.
      */
-    private static void displayEverything() {
+    private void displayEverything() {
         // Initialise main frame for display
         _appFrame = new JFrame();
         _appFrame.setTitle("MDP Group 2 Simulator");
@@ -96,11 +108,11 @@ public class Simulator {
      * Initialises the main map view by adding the different maps as cards in the CardLayout. Displays realMap
      * by default.
      */
-    private static void initMainLayout() {
+    private void initMainLayout() {
         if (!realRun) {
-            _mapCards.add(realMap, "REAL_MAP");
+            _mapCards.add(new MapPanel(realMap), "REAL_MAP");
         }
-        _mapCards.add(exploredMap, "EXPLORATION");
+        _mapCards.add(new MapPanel(exploredMap), "EXPLORATION");
 
         CardLayout cl = ((CardLayout) _mapCards.getLayout());
         if (!realRun) {
@@ -113,7 +125,7 @@ public class Simulator {
     /**
      * Initialises the JPanel for the buttons.
      */
-    private static void initButtonsLayout() {
+    private void initButtonsLayout() {
         _buttons.setLayout(new GridLayout());
         addButtons();
     }
@@ -121,7 +133,7 @@ public class Simulator {
     /**
      * Helper method to set particular properties for all the JButtons.
      */
-    private static void formatButton(JButton btn) {
+    private void formatButton(JButton btn) {
         btn.setFont(new Font("Arial", Font.BOLD, 13));
         btn.setFocusPainted(false);
     }
@@ -130,7 +142,7 @@ public class Simulator {
      * Initialises and adds the five main buttons. Also creates the relevant classes (for multithreading) and JDialogs
      * (for user input) for the different functions of the buttons.
      */
-    private static void addButtons() {
+    private void addButtons() {
         if (!realRun) {
             // Load Map Button
             JButton btn_LoadMap = new JButton("Load Map");
@@ -173,6 +185,7 @@ public class Simulator {
                     while (true) {
                         System.out.println("Waiting for FP_START...");
                         String msg = comm.recvMsg();
+                        if (msg == null) return 222;
                         if (msg.equals(CommMgr.FP_START)) break;
                     }
                 }
@@ -201,7 +214,7 @@ public class Simulator {
                 exploration = new ExplorationAlgo(exploredMap, realMap, bot, coverageLimit, timeLimit);
 
                 if (realRun) {
-                    CommMgr.getCommMgr().sendMsg(null, CommMgr.BOT_START);
+                    comm.sendMsg(null, CommMgr.BOT_START);
                 }
 
                 exploration.runExploration();
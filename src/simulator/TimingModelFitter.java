@@ -0,0 +1,35 @@
+package simulator;
+
+import robot.MovementTimingModel;
+import utils.SessionReplayer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fits a MovementTimingModel to recorded sessions and saves it.
+ *
+ * Usage: java simulator.TimingModelFitter <model.properties> <recording>...
+ *
+ * Run the simulator with -Dmdp.timing=<model.properties> to plan and simulate with the fitted model.
+ */
+
+public class TimingModelFitter {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: TimingModelFitter <model.properties> <recording>...");
+            return;
+        }
+
+        List<SessionReplayer> sessions = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            sessions.add(new SessionReplayer(args[i], false));
+        }
+
+        MovementTimingModel model = MovementTimingModel.fit(sessions);
+        model.save(args[0]);
+        System.out.println(model);
+        System.out.println("Saved to " + args[0]);
+    }
+}
@@ -0,0 +1,146 @@
+package utils;
+
+import map.Arena;
+import map.MapConstants;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// @formatter:off
+/**
+ * A library of arenas in one binary file, read through a memory-mapped FileChannel. get() returns an Arena that reads
+ * its bits straight from the mapping, so opening a pack costs nothing per arena and only the arenas used are ever
+ * paged in.
+ *
+ * File layout (big-endian):
+ *   header   "MDPA" [u8 version] [u8 rows] [u8 cols] [u8 bytes per arena] [i32 count]
+ *   index    count x [i64 offset of the arena's bits] [i32 offset of its name] [i32 name length]
+ *   bits     count x [bytes per arena]                  (see Arena)
+ *   names    UTF-8
+ *
+ * Offsets are from the start of the file.
+ */
+// @formatter:on
+
+public class ArenaPack {
+    public static final byte[] MAGIC = {'M', 'D', 'P', 'A'};
+    public static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int INDEX_ENTRY_SIZE = 16;
+
+    private final String path;
+    private final ByteBuffer data;      // the whole file, read-only
+    private final int count;
+
+    private ArenaPack(String path, ByteBuffer data) throws IOException {
+        this.path = path;
+        this.data = data;
+
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data.limit() < HEADER_SIZE || data.get(i) != MAGIC[i]) throw new IOException(path + " is not an arena pack");
+        }
+        if (data.get(4) != VERSION) throw new IOException(path + " has unsupported version " + data.get(4));
+        if (data.get(5) != MapConstants.MAP_ROWS || data.get(6) != MapConstants.MAP_COLS || data.get(7) != Arena.NUM_BYTES) {
+            throw new IOException(path + " holds " + data.get(5) + "x" + data.get(6) + " arenas, expected " + MapConstants.MAP_ROWS + "x" + MapConstants.MAP_COLS);
+        }
+
+        count = data.getInt(8);
+        if (count < 0 || HEADER_SIZE + (long) count * (INDEX_ENTRY_SIZE + Arena.NUM_BYTES) > data.limit()) throw new IOException(path + " is truncated");
+
+        // get() and getName() trust the index, so check every entry once here.
+        for (int i = 0; i < count; i++) {
+            int entry = getIndexOffset(i);
+            long bitsOffset = data.getLong(entry);
+            int nameOffset = data.getInt(entry + 8);
+            int nameLength = data.getInt(entry + 12);
+            if (bitsOffset < 0 || bitsOffset > data.limit() - Arena.NUM_BYTES) throw new IOException(path + ": arena " + i + " has its bits outside the file");
+            if (nameOffset < 0 || nameLength < 0 || (long) nameOffset + nameLength > data.limit()) throw new IOException(path + ": arena " + i + " has its name outside the file");
+        }
+    }
+
+    /**
+     * Maps the pack at path into memory.
+     */
+    public static ArenaPack open(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed.
+            return new ArenaPack(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes the arenas to a new pack at path.
+     */
+    public static void write(String path, List<Arena> arenas) throws IOException {
+        byte[][] names = new byte[arenas.size()][];
+        int namesSize = 0;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = arenas.get(i).getName().getBytes(StandardCharsets.UTF_8);
+            namesSize += names[i].length;
+        }
+
+        int bitsStart = HEADER_SIZE + arenas.size() * INDEX_ENTRY_SIZE;
+        int namesStart = bitsStart + arenas.size() * Arena.NUM_BYTES;
+        ByteBuffer buf = ByteBuffer.allocate(namesStart + namesSize);
+
+        buf.put(MAGIC).put((byte) VERSION).put((byte) MapConstants.MAP_ROWS).put((byte) MapConstants.MAP_COLS).put((byte) Arena.NUM_BYTES);
+        buf.putInt(arenas.size());
+        int nameOffset = namesStart;
+        for (int i = 0; i < names.length; i++) {
+            buf.putLong(bitsStart + (long) i * Arena.NUM_BYTES).putInt(nameOffset).putInt(names[i].length);
+            nameOffset += names[i].length;
+        }
+        for (Arena arena : arenas) buf.put(arena.getBits());
+        for (byte[] name : names) buf.put(name);
+
+        buf.flip();
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) channel.write(buf);
+        }
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns arena i. Its bits are read from the mapped file, not copied.
+     */
+    public Arena get(int i) {
+        return new Arena(getName(i), data.slice((int) getBitsOffset(i), Arena.NUM_BYTES));
+    }
+
+    public String getName(int i) {
+        int entry = getIndexOffset(i);
+        byte[] name = new byte[data.getInt(entry + 12)];
+        data.get(data.getInt(entry + 8), name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns all arenas in order, decoded as they are consumed.
+     */
+    public Stream<Arena> stream() {
+        return IntStream.range(0, count).mapToObj(this::get);
+    }
+
+    private long getBitsOffset(int i) {
+        return data.getLong(getIndexOffset(i));
+    }
+
+    private int getIndexOffset(int i) {
+        if (i < 0 || i >= count) throw new IndexOutOfBoundsException("Arena " + i + " of " + count);
+        return HEADER_SIZE + i * INDEX_ENTRY_SIZE;
+    }
+}
@@ -0,0 +1,220 @@
+package utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+
+// @formatter:off
+/**
+ * Encoder/decoder for the compact binary wire format used by CommMgr once BINARY mode has been negotiated.
+ *
+ * Every frame starts with a one-byte opcode followed by fixed-width fields:
+ *
+ *   EX_START, FP_START, BOT_START    [op]
+ *   INSTR                            [op][move char][count]      count 1 to 10
+ *   BOT_POS                          [op][row][col][dir char]
+ *   SDATA                            [op][6 x signed byte]       readings -128 to 127
+ *   MAP, ROUTE                       [op][u16 length][ascii]
+ *   other message types              [op][u8 type length][ascii type][u16 length][ascii]
+ *   BATCH                            [op][u8 count][count x frame]
+ */
+// @formatter:on
+
+public class BinaryCodec {
+    public static final int OP_EX_START = 0x01;
+    public static final int OP_FP_START = 0x02;
+    public static final int OP_BOT_START = 0x03;
+    public static final int OP_INSTR = 0x10;
+    public static final int OP_ROUTE = 0x11;
+    public static final int OP_BOT_POS = 0x20;
+    public static final int OP_MAP = 0x21;
+    public static final int OP_SDATA = 0x30;
+    public static final int OP_GENERIC = 0x7E;
+    public static final int OP_BATCH = 0x7F;
+
+    public static final int MAX_BATCH = 255;
+    public static final int MAX_FORWARD_COUNT = 10;
+
+    private static final String[] SENSOR_LABELS = {"SRFL", "SRFC", "SRFR", "SRL", "SRR", "LRL"};
+
+    /**
+     * A decoded message in the same (msgType, msg) form that CommMgr.sendMsg() takes.
+     */
+    public static class Frame {
+        public final String msgType;
+        public final String msg;
+
+        public Frame(String msgType, String msg) {
+            this.msgType = msgType;
+            this.msg = msg;
+        }
+
+        /**
+         * Returns the message as the single line that would have been received in TEXT mode.
+         */
+        public String toLine() {
+            return msg == null ? msgType : msgType + ";" + msg;
+        }
+    }
+
+    /**
+     * Writes a single frame for the given message.
+     */
+    public static void encode(DataOutputStream out, String msg, String msgType) throws IOException {
+        switch (msgType) {
+            case CommMgr.EX_START:
+                out.writeByte(OP_EX_START);
+                break;
+            case CommMgr.FP_START:
+                out.writeByte(OP_FP_START);
+                break;
+            case CommMgr.BOT_START:
+                out.writeByte(OP_BOT_START);
+                break;
+            case CommMgr.INSTRUCTIONS:
+                int count = getForwardCount(msg);
+                if (count < 0 || (count == 0 && msg.length() != 1)) throw new IOException("Malformed instruction: " + msg);
+                out.writeByte(OP_INSTR);
+                out.writeByte(count > 0 ? 'F' : msg.charAt(0));
+                out.writeByte(Math.max(1, count));
+                break;
+            case CommMgr.BOT_POS:
+                String[] pos = msg.split(",");
+                out.writeByte(OP_BOT_POS);
+                out.writeByte(Integer.parseInt(pos[0]));
+                out.writeByte(Integer.parseInt(pos[1]));
+                out.writeByte(pos[2].charAt(0));
+                break;
+            case CommMgr.SENSOR_DATA:
+                int[] readings = new int[SensorDataParser.NUM_READINGS];
+                if (!SensorDataParser.parse(msgType + ";" + msg, readings)) {
+                    throw new IOException("Malformed sensor data: " + msg);
+                }
+                for (int reading : readings) {
+                    if (reading < Byte.MIN_VALUE || reading > Byte.MAX_VALUE) throw new IOException("Sensor reading out of range: " + msg);
+                }
+                out.writeByte(OP_SDATA);
+                for (int reading : readings) {
+                    out.writeByte(reading);
+                }
+                break;
+            case CommMgr.MAP_STRINGS:
+                out.writeByte(OP_MAP);
+                writeAscii(out, msg);
+                break;
+            case CommMgr.ROUTE:
+                out.writeByte(OP_ROUTE);
+                writeAscii(out, msg);
+                break;
+            default:
+                byte[] type = msgType.getBytes(StandardCharsets.US_ASCII);
+                out.writeByte(OP_GENERIC);
+                out.writeByte(type.length);
+                out.write(type);
+                writeAscii(out, msg == null ? "" : msg);
+                break;
+        }
+    }
+
+    /**
+     * Writes the header of a BATCH frame. It must be followed by exactly count frames.
+     */
+    public static void encodeBatchHeader(DataOutputStream out, int count) throws IOException {
+        out.writeByte(OP_BATCH);
+        out.writeByte(count);
+    }
+
+    /**
+     * Reads the next frame and adds the message(s) it contains to the queue. Throws EOFException when the stream
+     * ends.
+     */
+    public static void decode(DataInputStream in, Queue<Frame> frames) throws IOException {
+        int op = in.readUnsignedByte();
+        switch (op) {
+            case OP_EX_START:
+                frames.add(new Frame(CommMgr.EX_START, null));
+                break;
+            case OP_FP_START:
+                frames.add(new Frame(CommMgr.FP_START, null));
+                break;
+            case OP_BOT_START:
+                frames.add(new Frame(CommMgr.BOT_START, null));
+                break;
+            case OP_INSTR:
+                char m = (char) in.readUnsignedByte();
+                int count = in.readUnsignedByte();
+                if (count < 1 || count > MAX_FORWARD_COUNT || (count > 1 && m != 'F')) {
+                    throw new IOException("Malformed instruction: " + m + " x " + count);
+                }
+                String instr;
+                if (count == 1) instr = Character.toString(m);
+                else instr = Integer.toString(count % 10);
+                frames.add(new Frame(CommMgr.INSTRUCTIONS, instr));
+                break;
+            case OP_BOT_POS:
+                int row = in.readUnsignedByte();
+                int col = in.readUnsignedByte();
+                char dir = (char) in.readUnsignedByte();
+                frames.add(new Frame(CommMgr.BOT_POS, row + "," + col + "," + dir));
+                break;
+            case OP_SDATA:
+                StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < SENSOR_LABELS.length; i++) {
+                    if (i > 0) sb.append(';');
+                    sb.append(SENSOR_LABELS[i]).append('_').append(in.readByte());
+                }
+                frames.add(new Frame(CommMgr.SENSOR_DATA, sb.toString()));
+                break;
+            case OP_MAP:
+                frames.add(new Frame(CommMgr.MAP_STRINGS, readAscii(in)));
+                break;
+            case OP_ROUTE:
+                frames.add(new Frame(CommMgr.ROUTE, readAscii(in)));
+                break;
+            case OP_GENERIC:
+                byte[] type = new byte[in.readUnsignedByte()];
+                in.readFully(type);
+                String msg = readAscii(in);
+                frames.add(new Frame(new String(type, StandardCharsets.US_ASCII), msg.isEmpty() ? null : msg));
+                break;
+            case OP_BATCH:
+                int n = in.readUnsignedByte();
+                for (int i = 0; i < n; i++) {
+                    decode(in, frames);
+                }
+                break;
+            default:
+                throw new IOException("Unknown opcode: " + op);
+        }
+    }
+
+    /**
+     * Returns the number of cells of a multiple forward instruction (its digits, where "0" stands for 10), 0 if the
+     * instruction is a movement character, or -1 if it is neither. Multiple forward movements are limited to
+     * MAX_FORWARD_COUNT cells.
+     */
+    public static int getForwardCount(String instr) {
+        if (instr == null || instr.isEmpty()) return -1;
+        if (!Character.isDigit(instr.charAt(0))) return 0;
+
+        int count = 0;
+        for (int i = 0; i < instr.length(); i++) {
+            if (!Character.isDigit(instr.charAt(i)) || i >= 2) return -1;
+            count = count * 10 + (instr.charAt(i) - '0');
+        }
+        if (count == 0) count = 10;
+        return count <= MAX_FORWARD_COUNT ? count : -1;
+    }
+
+    private static void writeAscii(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.US_ASCII);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readAscii(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,20 @@
+package utils;
+
+/**
+ * Source of time for the robot and the algorithms.
+ *
+ * Real runs use the WallClock. Simulated runs can use a VirtualClock, which advances by the simulated duration of
+ * each movement instead of sleeping, so that time-limited runs behave the same but finish at CPU speed.
+ */
+
+public interface Clock {
+    /**
+     * Returns the current time in milliseconds. Only differences between two values are meaningful.
+     */
+    long currentTimeMillis();
+
+    /**
+     * Lets the given amount of time (ms) pass, e.g. the duration of a simulated movement.
+     */
+    void elapse(long millis);
+}
@@ -2,10 +2,40 @@ package utils;
 
 import java.io.*;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Communication manager to communicate with the different parts of the system via the RasPi.
+ *
+ * Messages are sent as newline-delimited text by default. If BINARY is requested with setWireFormat() before
+ * opening the connection, the compact framing of BinaryCodec is negotiated with the RasPi and used if accepted.
+ *
+ * Writes are coalesced: messages sent between beginBatch() and endBatch() go out in a single write, and messages
+ * passed to queueMsg() are held back until the next flush or for at most the cork window. Any pending messages are
+ * always flushed before blocking on recvMsg().
+ *
+ * All traffic can be recorded with startRecording(), and a recorded session can be fed back through the same API
+ * with openReplay() instead of opening a connection.
+ *
+ * Heartbeats are off by default, as the stock RasPi does not know them. If enabled (-Dmdp.heartbeat or
+ * setHeartbeat()), they are offered in the PROTO handshake and only used if the RasPi accepts them; it then answers
+ * each HB with HB_ACK, and a link that stays silent for longer than the link timeout is declared dead. If that
+ * happens or the socket fails, the connection is re-opened with exponential backoff and the session is resumed: the
+ * RasPi reports how many requests it has executed, the remaining unanswered requests are sent again, followed by
+ * any other message that never made it out (e.g. a ROUTE), and Android gets the last robot position and map.
+ *
+ * Each instance holds its own connection, so one process can talk to several robots at once.
  */
 
 public class CommMgr {
@@ -16,38 +46,215 @@ public class CommMgr {
     public static final String BOT_POS = "BOT_POS";         // PC --> Android
     public static final String BOT_START = "BOT_START";     // PC --> Arduino
     public static final String INSTRUCTIONS = "INSTR";      // PC --> Arduino
+    public static final String ROUTE = "ROUTE";             // PC --> Arduino
     public static final String SENSOR_DATA = "SDATA";       // Arduino --> PC
+    public static final String PROTOCOL = "PROTO";          // PC <-> RasPi
+    public static final String HEARTBEAT = "HB";            // PC --> RasPi
+    public static final String HEARTBEAT_ACK = "HB_ACK";    // RasPi --> PC
+    public static final String RESUME = "RESUME";           // PC --> RasPi
+    public static final String RESUMED = "RESUMED";         // RasPi --> PC
+
+    public static final String HOST = "192.168.2.1";
+    public static final int PORT = 8008;
+    public static final String PROTOCOL_BINARY = "BIN1";
+    private static final int HANDSHAKE_TIMEOUT = 1000;      // ms to wait for the RasPi to answer PROTO or RESUME
+    private static final int CORK_WINDOW = 20;              // default max delay of queued messages (ms)
+    private static final int HEARTBEAT_INTERVAL = 0;        // default heartbeat interval (ms), 0 = disabled
+    private static final int LINK_TIMEOUT = 3000;           // default silence before the link is declared dead (ms)
+    private static final int RECONNECT_ATTEMPTS = 10;
+    private static final int BACKOFF_MIN = 100;             // first reconnect delay (ms)
+    private static final int BACKOFF_MAX = 2000;            // max reconnect delay (ms)
+
+    public enum WIRE_FORMAT {
+        TEXT, BINARY
+    }
 
     private static CommMgr commMgr = null;
-    private static Socket conn = null;
 
-    private BufferedWriter writer;
-    private BufferedReader reader;
+    private Socket conn = null;
+
+    private String host;
+    private int port;
+    private WIRE_FORMAT requestedFormat = WIRE_FORMAT.TEXT;
+    private WIRE_FORMAT wireFormat = WIRE_FORMAT.TEXT;
+    private boolean verbose = true;
+
+    // Socket streams
+    private OutputStream out;
+    private BufferedInputStream in;
+    private CountingInputStream countingIn;
+    private final StringBuilder lineBuf = new StringBuilder();
+    private final Queue<String> received = new ArrayDeque<>();
+
+    // Write coalescing
+    private final ByteArrayOutputStream pendingBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pendingOut = new DataOutputStream(pendingBytes);
+    private int pendingCount;
+    private int batchDepth;
+    private int corkWindow = CORK_WINDOW;
+    private ScheduledExecutorService timer;
+    private ScheduledFuture<?> scheduledFlush;
 
-    private CommMgr() {
+    // Failure detection & resume
+    private int heartbeatInterval = Integer.getInteger("mdp.heartbeat", HEARTBEAT_INTERVAL);
+    private int linkTimeout = LINK_TIMEOUT;
+    private ScheduledFuture<?> heartbeat;
+    private boolean heartbeats;                                     // the RasPi accepted heartbeats
+    private volatile long lastSentNanos;
+    private volatile long lastHeardNanos;
+    private final Queue<String[]> unanswered = new ArrayDeque<>();  // [msg, msgType] of requests awaiting SDATA
+    private long answeredRequests;
+    private String lastBotPos;
+    private String lastMap;
+    private final List<String[]> unflushedMsgs = new ArrayList<>(); // [msg, msgType] sent since the last flush
+    private final List<String[]> lostMsgs = new ArrayList<>();      // of those, the ones resume() has to send again
+
+    // Record & replay
+    private SessionRecorder recorder;
+    private SessionReplayer replayer;
+
+    // Telemetry
+    private final LinkMetrics metrics = new LinkMetrics();
+    private final List<String> unflushedRequests = new ArrayList<>();
+
+    /**
+     * Creates an unconnected CommMgr. Every session (see simulator.Session) owns its own.
+     */
+    public CommMgr() {
     }
 
-    public static CommMgr getCommMgr() {
+    /**
+     * Returns the process-wide CommMgr, for code that does not get one passed in.
+     */
+    public static synchronized CommMgr getCommMgr() {
         if (commMgr == null) {
             commMgr = new CommMgr();
         }
         return commMgr;
     }
 
-    public void openConnection() {
-        System.out.println("Opening connection...");
+    /**
+     * Sets the wire format to negotiate the next time a connection is opened.
+     */
+    public void setWireFormat(WIRE_FORMAT format) {
+        this.requestedFormat = format;
+    }
+
+    public WIRE_FORMAT getWireFormat() {
+        return wireFormat;
+    }
+
+    /**
+     * Returns the link telemetry (message/byte counters and latency histograms).
+     */
+    public LinkMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Enables or disables printing every message to stdout.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Sets the maximum time (ms) a message passed to queueMsg() may wait before it is flushed.
+     */
+    public void setCorkWindow(int corkWindow) {
+        this.corkWindow = corkWindow;
+    }
+
+    /**
+     * Sets the heartbeat interval and the silence after which the link is declared dead (ms). An interval of 0
+     * disables heartbeats, and with them the detection of a silently dead link. Heartbeats are only used if the RasPi
+     * accepts them in the PROTO handshake. Takes effect on the next openConnection().
+     */
+    public void setHeartbeat(int heartbeatInterval, int linkTimeout) {
+        this.heartbeatInterval = heartbeatInterval;
+        this.linkTimeout = linkTimeout;
+    }
+
+    /**
+     * Records all subsequent traffic in both directions into the given file (see SessionRecorder).
+     */
+    public synchronized void startRecording(String filename) {
+        try {
+            stopRecording();
+            recorder = new SessionRecorder(filename);
+            System.out.println("Recording session to " + filename);
+        } catch (IOException e) {
+            System.out.println("startRecording() --> IOException");
+        }
+    }
 
+    public synchronized void stopRecording() {
+        if (recorder == null) return;
         try {
-            String HOST = "192.168.2.1";
-            int PORT = 8008;
-            conn = new Socket(HOST, PORT);
+            recorder.close();
+        } catch (IOException e) {
+            System.out.println("stopRecording() --> IOException");
+        }
+        recorder = null;
+    }
+
+    /**
+     * Plays back a recorded session instead of talking to the RasPi: recvMsg() returns the recorded messages and
+     * sent messages are checked against the recording.
+     */
+    public synchronized void openReplay(SessionReplayer replayer) {
+        this.replayer = replayer;
+        System.out.println("Replaying recorded session...");
+    }
+
+    public SessionReplayer getReplayer() {
+        return replayer;
+    }
 
-            writer = new BufferedWriter(new OutputStreamWriter(new BufferedOutputStream(conn.getOutputStream())));
-            reader = new BufferedReader(new InputStreamReader(conn.getInputStream()));
+    /**
+     * Opens a connection to the RasPi. The address can be overridden with the mdp.host and mdp.port system
+     * properties, e.g. to connect to a local RasPiStandIn.
+     */
+    public void openConnection() {
+        openConnection(System.getProperty("mdp.host", HOST), Integer.getInteger("mdp.port", PORT));
+    }
 
-            System.out.println("openConnection() --> " + "Connection established successfully!");
+    public synchronized void openConnection(String host, int port) {
+        this.host = host;
+        this.port = port;
 
+        if (connect()) {
+            startHeartbeat();
             return;
+        }
+
+        System.out.println("Failed to establish connection!");
+    }
+
+    /**
+     * Opens the socket to host:port and negotiates the wire format. Returns true if successful.
+     */
+    private boolean connect() {
+        System.out.println("Opening connection to " + host + ":" + port + "...");
+
+        try {
+            conn = new Socket(host, port);
+            conn.setTcpNoDelay(true);
+
+            out = new BufferedOutputStream(conn.getOutputStream());
+            countingIn = new CountingInputStream(conn.getInputStream());
+            in = new BufferedInputStream(countingIn);
+            lineBuf.setLength(0);
+
+            wireFormat = WIRE_FORMAT.TEXT;
+            heartbeats = false;
+            if (requestedFormat == WIRE_FORMAT.BINARY || heartbeatInterval > 0) negotiate();
+            conn.setSoTimeout(getPollTimeout());
+            lastHeardNanos = System.nanoTime();
+
+            System.out.println("openConnection() --> " + "Connection established successfully! (" + wireFormat + (heartbeats ? ", heartbeats" : "") + ")");
+
+            return true;
         } catch (UnknownHostException e) {
             System.out.println("openConnection() --> UnknownHostException");
         } catch (IOException e) {
@@ -57,14 +264,55 @@ public class CommMgr {
             System.out.println(e.toString());
         }
 
-        System.out.println("Failed to establish connection!");
+        closeSocket();
+        return false;
+    }
+
+    /**
+     * Returns the socket read timeout. With heartbeats in use, reads wake up regularly to check for a dead link;
+     * otherwise they block indefinitely.
+     */
+    private int getPollTimeout() {
+        return heartbeats ? Math.max(1, heartbeatInterval / 4) : 0;
+    }
+
+    /**
+     * Offers the RasPi the binary wire format and heartbeats, as far as they are requested, in a single PROTO line,
+     * e.g. "PROTO BIN1 HB". The RasPi replies with PROTO and the features it accepts. Without a reply within
+     * HANDSHAKE_TIMEOUT, TEXT mode without heartbeats is kept.
+     */
+    private void negotiate() throws IOException {
+        List<String> offered = new ArrayList<>();
+        if (requestedFormat == WIRE_FORMAT.BINARY) offered.add(PROTOCOL_BINARY);
+        if (heartbeatInterval > 0) offered.add(HEARTBEAT);
+
+        out.write((PROTOCOL + " " + String.join(" ", offered) + "\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+
+        String reply = readReply();
+        if (reply == null || !reply.startsWith(PROTOCOL + " ")) {
+            System.out.println("negotiate() --> No reply, falling back to TEXT");
+            return;
+        }
+        List<String> accepted = Arrays.asList(reply.substring(PROTOCOL.length() + 1).trim().split(" "));
+        if (offered.contains(PROTOCOL_BINARY) && accepted.contains(PROTOCOL_BINARY)) wireFormat = WIRE_FORMAT.BINARY;
+        heartbeats = offered.contains(HEARTBEAT) && accepted.contains(HEARTBEAT);
     }
 
     public void closeConnection() {
         System.out.println("Closing connection...");
 
         try {
-            reader.close();
+            synchronized (this) {
+                flushMsgs();
+                stopRecording();
+                if (timer != null) {
+                    timer.shutdownNow();
+                    timer = null;
+                    heartbeat = null;
+                }
+                host = null;
+            }
 
             if (conn != null) {
                 conn.close();
@@ -81,53 +329,488 @@ public class CommMgr {
         }
     }
 
-    public void sendMsg(String msg, String msgType) {
-        System.out.println("Sending a message...");
+    public synchronized void sendMsg(String msg, String msgType) {
+        if (verbose) System.out.println("Sending a message...");
 
         try {
-            String outputMsg;
-            if (msg == null) {
-                outputMsg = msgType + "\n";
-            } else if (msgType.equals(MAP_STRINGS) || msgType.equals(BOT_POS)) {
-                outputMsg = msgType + " " + msg + "\n";
-            } else {
-                outputMsg = msgType + "\n" + msg + "\n";
-            }
-
-            System.out.println("Sending out message:\n" + outputMsg);
-            writer.write(outputMsg);
-            writer.flush();
+            writeMsg(msg, msgType, true);
+            if (batchDepth == 0) flushMsgs();
         } catch (IOException e) {
             System.out.println("sendMsg() --> IOException");
+            reconnect();
         } catch (Exception e) {
             System.out.println("sendMsg() --> Exception");
             System.out.println(e.toString());
         }
     }
 
-    public String recvMsg() {
-        System.out.println("Receiving a message...");
+    /**
+     * Buffers a message that is not time-critical (e.g. map updates for Android). It is sent together with the next
+     * flushed message, or on its own once the cork window has elapsed.
+     */
+    public synchronized void queueMsg(String msg, String msgType) {
+        if (verbose) System.out.println("Queueing a message...");
 
         try {
-            StringBuilder sb = new StringBuilder();
-            String input = reader.readLine();
+            writeMsg(msg, msgType, true);
+            if (batchDepth == 0) scheduleFlush();
+        } catch (IOException e) {
+            System.out.println("queueMsg() --> IOException");
+            reconnect();
+        } catch (Exception e) {
+            System.out.println("queueMsg() --> Exception");
+            System.out.println(e.toString());
+        }
+    }
 
-            if (input != null && input.length() > 0) {
-                sb.append(input);
-                System.out.println(sb.toString());
-                return sb.toString();
-            }
+    /**
+     * Holds back all messages sent until the matching endBatch() call. Batches can be nested.
+     */
+    public synchronized void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Ends a batch started with beginBatch(), sending all of its messages in a single write.
+     */
+    public synchronized void endBatch() {
+        if (batchDepth > 0) batchDepth--;
+        if (batchDepth == 0) flush();
+    }
+
+    /**
+     * Sends all buffered messages immediately.
+     */
+    public synchronized void flush() {
+        try {
+            flushMsgs();
         } catch (IOException e) {
-            System.out.println("recvMsg() --> IOException");
+            System.out.println("flush() --> IOException");
+            reconnect();
         } catch (Exception e) {
-            System.out.println("recvMsg() --> Exception");
+            System.out.println("flush() --> Exception");
             System.out.println(e.toString());
         }
+    }
+
+    /**
+     * Sends a compiled route program followed by the robot positions for Android in a single write.
+     */
+    public void sendRoute(String program, List<String> botPositions) {
+        beginBatch();
+        sendMsg(program, ROUTE);
+        for (String pos : botPositions) {
+            sendMsg(pos, BOT_POS);
+        }
+        endBatch();
+    }
+
+    /**
+     * Makes sure buffered messages are flushed within the cork window.
+     */
+    private void scheduleFlush() throws IOException {
+        if (corkWindow <= 0) {
+            flushMsgs();
+            return;
+        }
+        if (scheduledFlush != null && !scheduledFlush.isDone()) return;
+
+        scheduledFlush = getTimer().schedule(() -> {
+            synchronized (this) {
+                try {
+                    flushMsgs();
+                } catch (IOException e) {
+                    // Left to the main thread, which reconnects in its next sendMsg() or recvMsg().
+                }
+            }
+        }, corkWindow, TimeUnit.MILLISECONDS);
+    }
 
-        return null;
+    private ScheduledExecutorService getTimer() {
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "CommMgr-timer");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return timer;
+    }
+
+    /**
+     * Sends a heartbeat whenever the link has been quiet in either direction for a heartbeat interval.
+     */
+    private void startHeartbeat() {
+        if (heartbeatInterval <= 0 || heartbeat != null) return;
+
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatInterval);
+        heartbeat = getTimer().scheduleAtFixedRate(() -> {
+            synchronized (this) {
+                long now = System.nanoTime();
+                if (conn == null || !heartbeats || batchDepth > 0) return;
+                if (now - lastSentNanos < intervalNanos && now - lastHeardNanos < intervalNanos) return;
+                try {
+                    writeMsg(null, HEARTBEAT, false);
+                    flushMsgs();
+                } catch (IOException e) {
+                    // Picked up by the next recvMsg(), which reconnects.
+                }
+            }
+        }, heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffers a message in the current wire format without sending it. Heartbeats and messages re-sent by resume()
+     * are kept out of the recording and out of unflushedMsgs.
+     */
+    private void writeMsg(String msg, String msgType, boolean record) throws IOException {
+        if (LinkMetrics.expectsReply(msgType)) {
+            unflushedRequests.add(msgType);
+            unanswered.add(new String[]{msg, msgType});
+        }
+        if (msgType.equals(BOT_POS)) lastBotPos = msg;
+        if (msgType.equals(MAP_STRINGS)) lastMap = msg;
+
+        if (record) {
+            unflushedMsgs.add(new String[]{msg, msgType});
+            if (recorder != null) recorder.recordSent(msg, msgType);
+            if (replayer != null) replayer.expectSent(msg, msgType);
+        }
+
+        int before;
+        if (wireFormat == WIRE_FORMAT.BINARY && replayer == null) {
+            if (pendingCount == BinaryCodec.MAX_BATCH) flushMsgs();
+            before = pendingBytes.size();
+            BinaryCodec.encode(pendingOut, msg, msgType);
+            if (verbose) System.out.println("Sending out frame: " + msgType + (msg == null ? "" : " " + msg));
+        } else {
+            before = pendingBytes.size();
+            String outputMsg = formatMsg(msg, msgType);
+            pendingOut.write(outputMsg.getBytes(StandardCharsets.US_ASCII));
+            if (verbose) System.out.println("Sending out message:\n" + outputMsg);
+        }
+        metrics.onSend(msgType, pendingBytes.size() - before);
+        pendingCount++;
+    }
+
+    /**
+     * Writes out all buffered messages. In BINARY mode, several messages are sent as one BATCH frame.
+     */
+    private void flushMsgs() throws IOException {
+        if (pendingCount == 0) return;
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (replayer == null) {
+                if (conn == null) throw new IOException("Not connected");
+                if (wireFormat == WIRE_FORMAT.BINARY && pendingCount > 1) {
+                    BinaryCodec.encodeBatchHeader(new DataOutputStream(out), pendingCount);
+                }
+                pendingBytes.writeTo(out);
+                out.flush();
+            }
+            unflushedMsgs.clear();
+        } finally {
+            pendingBytes.reset();
+            pendingCount = 0;
+        }
+        long end = System.nanoTime();
+        lastSentNanos = end;
+
+        metrics.onFlush(end - start);
+        for (String request : unflushedRequests) {
+            metrics.onRequestFlushed(request, end);
+        }
+        unflushedRequests.clear();
+    }
+
+    /**
+     * Returns the newline-delimited text form of a message.
+     */
+    private String formatMsg(String msg, String msgType) {
+        if (msg == null) {
+            return msgType + "\n";
+        } else if (msgType.equals(MAP_STRINGS) || msgType.equals(BOT_POS) || msgType.equals(RESUME)) {
+            return msgType + " " + msg + "\n";
+        } else {
+            return msgType + "\n" + msg + "\n";
+        }
+    }
+
+    /**
+     * Returns the next message. A failed or silent link is re-established transparently; null is only returned if
+     * that fails or a replayed session has ended.
+     */
+    public String recvMsg() {
+        if (verbose) System.out.println("Receiving a message...");
+
+        // Never wait for a reply while the request is still sitting in the buffer.
+        flush();
+
+        long start = System.nanoTime();
+        while (true) {
+            try {
+                String input;
+                int bytes;
+                if (replayer != null) {
+                    input = replayer.nextReceived();
+                    if (input == null) return null;
+                    bytes = input.length() + 1;
+                } else {
+                    long countBefore = countingIn.getCount();
+                    input = readMsg();
+                    bytes = wireFormat == WIRE_FORMAT.BINARY ? (int) (countingIn.getCount() - countBefore) : input.length() + 1;
+                }
+                long end = System.nanoTime();
+                lastHeardNanos = end;
+
+                if (input.isEmpty() || input.equals(HEARTBEAT_ACK)) continue;
+
+                metrics.onReceive(getMsgType(input), bytes, end - start, end);
+                if (recorder != null) recorder.recordReceived(input);
+
+                if (verbose) System.out.println(input);
+                return input;
+            } catch (SocketTimeoutException e) {
+                if (heartbeats && System.nanoTime() - lastHeardNanos > TimeUnit.MILLISECONDS.toNanos(linkTimeout)) {
+                    System.out.println("recvMsg() --> Link timed out");
+                    if (!reconnect()) return null;
+                }
+            } catch (IOException e) {
+                System.out.println("recvMsg() --> IOException");
+                if (!reconnect()) return null;
+            } catch (Exception e) {
+                System.out.println("recvMsg() --> Exception");
+                System.out.println(e.toString());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Reads the next message as a TEXT-style line. Throws SocketTimeoutException if nothing arrives within the poll
+     * timeout; partially received data is kept for the next call.
+     */
+    private String readMsg() throws IOException {
+        if (!received.isEmpty()) return received.poll();
+
+        if (wireFormat == WIRE_FORMAT.TEXT) return onReceived(readLine());
+
+        // Wait for the start of a frame, then allow up to the link timeout for the rest of it.
+        in.mark(1);
+        if (in.read() == -1) throw new EOFException();
+        in.reset();
+
+        conn.setSoTimeout(linkTimeout);
+        try {
+            decodeFrames();
+        } finally {
+            conn.setSoTimeout(getPollTimeout());
+        }
+        return received.poll();
+    }
+
+    /**
+     * Reads a single reply within HANDSHAKE_TIMEOUT, or returns null. In BINARY mode, any further messages of the
+     * same frame are queued for recvMsg().
+     */
+    private String readReply() throws IOException {
+        conn.setSoTimeout(HANDSHAKE_TIMEOUT);
+        try {
+            if (wireFormat == WIRE_FORMAT.TEXT) return onReceived(readLine());
+
+            Queue<String> queued = new ArrayDeque<>(received);
+            received.clear();
+            decodeFrames();
+            String reply = received.poll();
+            received.addAll(queued);
+            return reply;
+        } catch (SocketTimeoutException e) {
+            return null;
+        } finally {
+            conn.setSoTimeout(getPollTimeout());
+        }
+    }
+
+    private void decodeFrames() throws IOException {
+        Queue<BinaryCodec.Frame> frames = new ArrayDeque<>();
+        BinaryCodec.decode(new DataInputStream(in), frames);
+        for (BinaryCodec.Frame frame : frames) {
+            received.add(onReceived(frame.toLine()));
+        }
+    }
+
+    /**
+     * Reads a line of text. Data received before a timeout is kept for the next call.
+     */
+    private String readLine() throws IOException {
+        while (true) {
+            int b = in.read();
+            if (b == -1) throw new EOFException();
+            if (b == '\n') {
+                String line = lineBuf.toString().trim();
+                lineBuf.setLength(0);
+                return line;
+            }
+            lineBuf.append((char) b);
+        }
+    }
+
+    /**
+     * Marks the oldest request as answered when its SDATA comes off the wire.
+     */
+    private synchronized String onReceived(String line) {
+        if (line.startsWith(SENSOR_DATA) && unanswered.poll() != null) answeredRequests++;
+        return line;
+    }
+
+    /**
+     * Re-establishes a lost connection with exponential backoff and resumes the session. Returns false if all
+     * attempts failed.
+     */
+    private synchronized boolean reconnect() {
+        if (replayer != null || host == null) return false;
+
+        System.out.println("Link lost, reconnecting...");
+        closeSocket();
+
+        int delay = BACKOFF_MIN;
+        for (int attempt = 1; attempt <= RECONNECT_ATTEMPTS; attempt++) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+
+            if (connect()) {
+                try {
+                    resume();
+                    metrics.onReconnect();
+                    System.out.println("reconnect() --> Session resumed after " + attempt + " attempt(s)");
+                    return true;
+                } catch (IOException e) {
+                    System.out.println("resume() --> IOException");
+                    closeSocket();
+                }
+            }
+            delay = Math.min(delay * 2, BACKOFF_MAX);
+        }
+
+        System.out.println("Failed to reconnect!");
+        return false;
+    }
+
+    // @formatter:off
+    /**
+     * Brings the RasPi and Android back in sync after a reconnect:
+     *
+     *   PC --> RESUME n       n = number of SDATA received so far
+     *   RasPi --> RESUMED m   m = number of requests executed so far; SDATA n .. m-1 are sent again by the RasPi
+     *
+     * Requests the RasPi never got are sent again, followed by the other messages whose write failed (those that are
+     * neither requests nor robot positions or maps, e.g. a ROUTE) and by the last robot position and map. A RasPi
+     * that does not know RESUME, or answers it with a malformed RESUMED, gets all unanswered requests again.
+     */
+    // @formatter:on
+    private void resume() throws IOException {
+        for (String[] m : unflushedMsgs) {
+            if (!LinkMetrics.expectsReply(m[1]) && !m[1].equals(BOT_POS) && !m[1].equals(MAP_STRINGS)) lostMsgs.add(m);
+        }
+        unflushedMsgs.clear();
+        pendingBytes.reset();
+        pendingCount = 0;
+        unflushedRequests.clear();
+        metrics.clearOutstanding();
+
+        writeMsg(Long.toString(answeredRequests), RESUME, false);
+        flushMsgs();
+
+        long executed = answeredRequests;
+        String reply = readReply();
+        if (reply != null && reply.startsWith(RESUMED) && reply.length() > RESUMED.length()) {
+            try {
+                executed = Long.parseLong(reply.substring(RESUMED.length() + 1).trim());
+            } catch (NumberFormatException e) {
+                // Treat a malformed reply like none at all: every unanswered request is sent again.
+                System.out.println("resume() --> Malformed " + RESUMED + " reply: " + reply);
+            }
+        } else if (reply != null) {
+            received.add(reply);
+        }
+
+        List<String[]> requests = new ArrayList<>(unanswered);
+        unanswered.clear();
+        long alreadyExecuted = Math.max(0, Math.min(executed - answeredRequests, requests.size()));
+        long now = System.nanoTime();
+        for (int i = 0; i < requests.size(); i++) {
+            String[] request = requests.get(i);
+            if (i < alreadyExecuted) {
+                unanswered.add(request);
+                metrics.onRequestFlushed(request[1], now);
+            } else {
+                writeMsg(request[0], request[1], false);
+            }
+        }
+
+        for (String[] m : lostMsgs) {
+            writeMsg(m[0], m[1], false);
+        }
+        if (lastBotPos != null) writeMsg(lastBotPos, BOT_POS, false);
+        if (lastMap != null) writeMsg(lastMap, MAP_STRINGS, false);
+        flushMsgs();
+        lostMsgs.clear();
+    }
+
+    private void closeSocket() {
+        try {
+            if (conn != null) conn.close();
+        } catch (IOException e) {
+            // Already broken.
+        }
+        conn = null;
+    }
+
+    /**
+     * Returns the type of a received line, e.g. SDATA for "SDATA;SRFL_1;...".
+     */
+    private static String getMsgType(String input) {
+        int sep = input.indexOf(';');
+        return sep < 0 ? input.trim() : input.substring(0, sep);
     }
 
     public boolean isConnected() {
-        return conn.isConnected();
+        return conn != null && conn.isConnected();
+    }
+
+    /**
+     * Counts the bytes read from the socket.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) count++;
+            return b;
+        }
+
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        long getCount() {
+            return count;
+        }
     }
 }
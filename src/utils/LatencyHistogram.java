@@ -0,0 +1,100 @@
+package utils;
+
+import java.util.Arrays;
+
+// @formatter:off
+/**
+ * Fixed-size latency histogram in the style of HdrHistogram. Values are bucketed log-linearly: every power of two is
+ * split into 16 equal sub-buckets, so any recorded value is reported with a relative error below ~6%, from 1 up to
+ * Long.MAX_VALUE, using under 1000 counters and without allocating on record().
+ *
+ * Units are up to the caller (CommMgr records microseconds).
+ */
+// @formatter:on
+
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;        // 32
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;        // 16
+
+    private final long[] counts = new long[(64 - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKETS + HALF_SUB_BUCKETS];
+    private long totalCount;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Returns the bucket index of a value.
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return (shift + 1) * HALF_SUB_BUCKETS + (int) ((value >>> shift) - HALF_SUB_BUCKETS);
+    }
+
+    /**
+     * Returns the highest value that falls into a bucket.
+     */
+    private static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) return index;
+
+        int shift = index / HALF_SUB_BUCKETS - 1;
+        long lowest = (long) (index % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    public synchronized void record(long value) {
+        if (value < 0) value = 0;
+
+        counts[indexOf(value)]++;
+        totalCount++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    public synchronized long getCount() {
+        return totalCount;
+    }
+
+    public synchronized long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public synchronized long getMax() {
+        return max;
+    }
+
+    public synchronized double getMean() {
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+    }
+
+    /**
+     * Returns the value at the given percentile (0 - 100), i.e. the upper bound of the bucket that contains it.
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) return Math.min(highestValueAt(i), max);
+        }
+        return max;
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("n=%d mean=%.0f p50=%d p90=%d p99=%d p99.9=%d max=%d", totalCount, getMean(), getValueAtPercentile(50), getValueAtPercentile(90), getValueAtPercentile(99), getValueAtPercentile(99.9), max);
+    }
+}
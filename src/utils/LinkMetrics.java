@@ -0,0 +1,175 @@
+package utils;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+// @formatter:off
+/**
+ * Telemetry for the RasPi link, collected by CommMgr.
+ *
+ * - message counters per type and direction, and total bytes per direction
+ * - round-trip latency from each request (INSTR, BOT_START) to the SDATA that answers it
+ * - time spent blocked in recvMsg() per received message type, which exposes link stalls
+ * - time spent flushing writes
+ * - number of reconnects
+ *
+ * All latencies are recorded in microseconds.
+ */
+// @formatter:on
+
+public class LinkMetrics {
+    public static final String FLUSH = "flush";
+
+    private final Map<String, long[]> msgCounts = new TreeMap<>();              // type --> [out, in]
+    private final Map<String, LatencyHistogram> roundTrips = new TreeMap<>();   // request type --> RTT
+    private final Map<String, LatencyHistogram> recvWaits = new TreeMap<>();    // received type --> wait
+    private final LatencyHistogram flushes = new LatencyHistogram();
+    private final Queue<Request> outstanding = new ArrayDeque<>();
+    private long bytesOut;
+    private long bytesIn;
+    private int reconnects;
+
+    /**
+     * Returns true for messages that the Arduino answers with SDATA.
+     */
+    public static boolean expectsReply(String msgType) {
+        return msgType.equals(CommMgr.INSTRUCTIONS) || msgType.equals(CommMgr.BOT_START);
+    }
+
+    public synchronized void onSend(String msgType, int bytes) {
+        count(msgType)[0]++;
+        bytesOut += bytes;
+    }
+
+    /**
+     * Starts the round-trip timer of a request once it has actually been flushed to the socket.
+     */
+    public synchronized void onRequestFlushed(String msgType, long nanos) {
+        outstanding.add(new Request(msgType, nanos));
+    }
+
+    public synchronized void onFlush(long nanos) {
+        flushes.record(nanos / 1000);
+    }
+
+    /**
+     * Records a received message, the time recvMsg() was blocked waiting for it and, for SDATA, the round trip of
+     * the oldest unanswered request.
+     */
+    public synchronized void onReceive(String msgType, int bytes, long waitNanos, long nowNanos) {
+        count(msgType)[1]++;
+        bytesIn += bytes;
+        histogram(recvWaits, msgType).record(waitNanos / 1000);
+
+        if (msgType.equals(CommMgr.SENSOR_DATA) && !outstanding.isEmpty()) {
+            Request request = outstanding.poll();
+            histogram(roundTrips, request.msgType).record((nowNanos - request.sentNanos) / 1000);
+        }
+    }
+
+    /**
+     * Forgets all unanswered requests, e.g. before they are re-sent after a reconnect.
+     */
+    public synchronized void clearOutstanding() {
+        outstanding.clear();
+    }
+
+    public synchronized void onReconnect() {
+        reconnects++;
+    }
+
+    public synchronized int getReconnects() {
+        return reconnects;
+    }
+
+    /**
+     * Returns the number of requests that have not been answered yet.
+     */
+    public synchronized int getOutstanding() {
+        return outstanding.size();
+    }
+
+    public synchronized long getMsgsOut(String msgType) {
+        return msgCounts.containsKey(msgType) ? msgCounts.get(msgType)[0] : 0;
+    }
+
+    public synchronized long getMsgsIn(String msgType) {
+        return msgCounts.containsKey(msgType) ? msgCounts.get(msgType)[1] : 0;
+    }
+
+    public synchronized long getBytesOut() {
+        return bytesOut;
+    }
+
+    public synchronized long getBytesIn() {
+        return bytesIn;
+    }
+
+    /**
+     * Returns the request --> SDATA round-trip histogram of a request type (e.g. INSTR).
+     */
+    public synchronized LatencyHistogram getRoundTrip(String requestType) {
+        return histogram(roundTrips, requestType);
+    }
+
+    /**
+     * Returns the histogram of time spent in recvMsg() waiting for a message type (e.g. SDATA).
+     */
+    public synchronized LatencyHistogram getRecvWait(String msgType) {
+        return histogram(recvWaits, msgType);
+    }
+
+    public LatencyHistogram getFlushes() {
+        return flushes;
+    }
+
+    public synchronized void reset() {
+        msgCounts.clear();
+        roundTrips.clear();
+        recvWaits.clear();
+        flushes.reset();
+        outstanding.clear();
+        bytesOut = 0;
+        bytesIn = 0;
+        reconnects = 0;
+    }
+
+    /**
+     * Returns a human-readable summary of all metrics.
+     */
+    public synchronized String report() {
+        StringBuilder sb = new StringBuilder("Link metrics (latencies in us):\n");
+        sb.append("  bytes out=").append(bytesOut).append(" in=").append(bytesIn).append(" reconnects=").append(reconnects).append("\n");
+        for (Map.Entry<String, long[]> e : msgCounts.entrySet()) {
+            sb.append("  ").append(e.getKey()).append(": out=").append(e.getValue()[0]).append(" in=").append(e.getValue()[1]).append("\n");
+        }
+        for (Map.Entry<String, LatencyHistogram> e : roundTrips.entrySet()) {
+            sb.append("  RTT ").append(e.getKey()).append(" --> SDATA: ").append(e.getValue()).append("\n");
+        }
+        for (Map.Entry<String, LatencyHistogram> e : recvWaits.entrySet()) {
+            sb.append("  wait for ").append(e.getKey()).append(": ").append(e.getValue()).append("\n");
+        }
+        sb.append("  ").append(FLUSH).append(": ").append(flushes);
+        return sb.toString();
+    }
+
+    private static class Request {
+        final String msgType;
+        final long sentNanos;
+
+        Request(String msgType, long sentNanos) {
+            this.msgType = msgType;
+            this.sentNanos = sentNanos;
+        }
+    }
+
+    private long[] count(String msgType) {
+        return msgCounts.computeIfAbsent(msgType, k -> new long[2]);
+    }
+
+    private static LatencyHistogram histogram(Map<String, LatencyHistogram> histograms, String msgType) {
+        return histograms.computeIfAbsent(msgType, k -> new LatencyHistogram());
+    }
+}
@@ -0,0 +1,86 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Set of primitive longs, using open addressing with linear probing. Avoids boxing a Long for every lookup, which
+ * matters when a key is checked after every movement.
+ */
+
+public class LongHashSet {
+    private static final long EMPTY = 0;                // marks a free slot; the key 0 itself is tracked separately
+    private static final double MAX_LOAD = 0.5;
+
+    private long[] keys;
+    private int size;
+    private boolean containsEmpty;
+
+    public LongHashSet() {
+        this(64);
+    }
+
+    public LongHashSet(int expectedSize) {
+        keys = new long[Integer.highestOneBit(Math.max(4, (int) (expectedSize / MAX_LOAD)) - 1) << 1];
+    }
+
+    /**
+     * Adds the key. Returns false if it was already in the set.
+     */
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            if (containsEmpty) return false;
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+
+        int i = indexOf(key, keys);
+        if (keys[i] == key) return false;
+
+        keys[i] = key;
+        size++;
+        if (size > keys.length * MAX_LOAD) grow();
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == EMPTY) return containsEmpty;
+        return keys[indexOf(key, keys)] == key;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        containsEmpty = false;
+    }
+
+    /**
+     * Returns the slot holding the key, or the free slot where it belongs.
+     */
+    private static int indexOf(long key, long[] table) {
+        int mask = table.length - 1;
+        int i = mix(key) & mask;
+        while (table[i] != EMPTY && table[i] != key) i = (i + 1) & mask;
+        return i;
+    }
+
+    private void grow() {
+        long[] table = new long[keys.length * 2];
+        for (long key : keys) {
+            if (key != EMPTY) table[indexOf(key, table)] = key;
+        }
+        keys = table;
+    }
+
+    /**
+     * Spreads the bits of the key, so that keys that differ only in their high bits do not collide.
+     */
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
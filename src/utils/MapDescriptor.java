@@ -1,5 +1,6 @@
 package utils;
 
+import map.Arena;
 import map.Map;
 import map.MapConstants;
 
@@ -19,9 +20,24 @@ public class MapDescriptor {
      */
     public static void loadMapFromDisk(Map map, String filename) {
         try {
-            InputStream inputStream = new FileInputStream("maps/" + filename + ".txt");
-            BufferedReader buf = new BufferedReader(new InputStreamReader(inputStream));
+            loadMapFromFile(map, "maps/" + filename + ".txt");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads the arena file at path (see loadMapFromDisk()) into the passed Map object.
+     */
+    public static void loadMapFromFile(Map map, String path) throws IOException {
+        loadArena(path).applyTo(map);
+    }
 
+    /**
+     * Reads the arena file at path (see loadMapFromDisk()).
+     */
+    public static Arena loadArena(String path) throws IOException {
+        try (BufferedReader buf = new BufferedReader(new InputStreamReader(new FileInputStream(path)))) {
             String line = buf.readLine();
             StringBuilder sb = new StringBuilder();
             while (line != null) {
@@ -29,18 +45,9 @@ public class MapDescriptor {
                 line = buf.readLine();
             }
 
-            String bin = sb.toString();
-            int binPtr = 0;
-            for (int row = MapConstants.MAP_ROWS - 1; row >= 0; row--) {
-                for (int col = 0; col < MapConstants.MAP_COLS; col++) {
-                    if (bin.charAt(binPtr) == '1') map.setObstacleCell(row, col, true);
-                    binPtr++;
-                }
-            }
-
-            map.setAllExplored();
-        } catch (IOException e) {
-            e.printStackTrace();
+            return Arena.parse(path, sb.toString());
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
         }
     }
 
@@ -54,9 +61,16 @@ public class MapDescriptor {
     }
 
     /**
-     * Generates Part 1 & Part 2 map descriptor strings from the passed Map object.
+     * Generates Part 1 & Part 2 map descriptor strings from the passed Map object and prints them.
      */
     public static String[] generateMapDescriptor(Map map) {
+        return generateMapDescriptor(map, true);
+    }
+
+    /**
+     * Generates Part 1 & Part 2 map descriptor strings from the passed Map object, printing them if verbose.
+     */
+    public static String[] generateMapDescriptor(Map map, boolean verbose) {
         String[] ret = new String[2];
 
         StringBuilder Part1 = new StringBuilder();
@@ -77,7 +91,7 @@ public class MapDescriptor {
         }
         Part1_bin.append("11");
         Part1.append(binToHex(Part1_bin.toString()));
-        System.out.println("P1: " + Part1.toString());
+        if (verbose) System.out.println("P1: " + Part1.toString());
         ret[0] = Part1.toString();
 
         StringBuilder Part2 = new StringBuilder();
@@ -98,7 +112,7 @@ public class MapDescriptor {
             }
         }
         if (Part2_bin.length() > 0) Part2.append(binToHex(Part2_bin.toString()));
-        System.out.println("P2: " + Part2.toString());
+        if (verbose) System.out.println("P2: " + Part2.toString());
         ret[1] = Part2.toString();
 
         return ret;
@@ -0,0 +1,71 @@
+package utils;
+
+// @formatter:off
+/**
+ * Allocation-free parser for sensor data packets received from the Arduino, which have the form:
+ *
+ *   SDATA;SRFL_1;SRFC_2;SRFR_-1;SRL_1;SRR_2;LRL_3
+ *
+ * The packet is scanned once and the readings are written into a caller-supplied array, so the hot sensing path does
+ * not create any intermediate strings or arrays. Malformed packets are rejected without throwing.
+ */
+// @formatter:on
+
+public class SensorDataParser {
+    public static final int NUM_READINGS = 6;
+    private static final int MAX_DIGITS = 4;
+
+    /**
+     * Parses the packet into result[0..5]. Returns false (leaving result in an unspecified state) if the packet is
+     * null or malformed.
+     */
+    public static boolean parse(CharSequence msg, int[] result) {
+        if (msg == null || result.length < NUM_READINGS) return false;
+
+        int len = msg.length();
+        String prefix = CommMgr.SENSOR_DATA;
+        if (len < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (msg.charAt(i) != prefix.charAt(i)) return false;
+        }
+
+        int pos = prefix.length();
+        for (int field = 0; field < NUM_READINGS; field++) {
+            if (pos >= len || msg.charAt(pos) != ';') return false;
+            pos++;
+
+            // Skip the sensor label up to the '_' separator.
+            while (pos < len && msg.charAt(pos) != '_') {
+                if (msg.charAt(pos) == ';') return false;
+                pos++;
+            }
+            if (pos >= len) return false;
+            pos++;
+
+            boolean negative = false;
+            if (pos < len && msg.charAt(pos) == '-') {
+                negative = true;
+                pos++;
+            }
+
+            int value = 0;
+            int digits = 0;
+            while (pos < len && msg.charAt(pos) >= '0' && msg.charAt(pos) <= '9') {
+                if (++digits > MAX_DIGITS) return false;
+                value = value * 10 + (msg.charAt(pos) - '0');
+                pos++;
+            }
+            if (digits == 0) return false;
+
+            result[field] = negative ? -value : value;
+        }
+
+        // Tolerate trailing whitespace (e.g. '\r' from the RasPi) but nothing else.
+        while (pos < len) {
+            if (!Character.isWhitespace(msg.charAt(pos))) return false;
+            pos++;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,94 @@
+package utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+// @formatter:off
+/**
+ * Records all CommMgr traffic of a session into a compact binary file that SessionReplayer can play back.
+ *
+ * File layout:
+ *   header   "MDPS" [u8 version] [i64 start time, epoch ms]
+ *   record   [u8 direction] [varint us since previous record] [string] [string]
+ *   string   [varint length + 1, 0 = null] [UTF-8 bytes]
+ *
+ * Sent records store (msgType, msg) as passed to CommMgr.sendMsg(); received records store the received line and a
+ * null second string.
+ */
+// @formatter:on
+
+public class SessionRecorder implements Closeable {
+    public static final byte[] MAGIC = {'M', 'D', 'P', 'S'};
+    public static final int VERSION = 1;
+    public static final int SENT = 0;
+    public static final int RECEIVED = 1;
+
+    private final DataOutputStream out;
+    private final long startNanos;
+    private long lastMicros;
+
+    public SessionRecorder(String filename) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(System.currentTimeMillis());
+        startNanos = System.nanoTime();
+    }
+
+    public synchronized void recordSent(String msg, String msgType) throws IOException {
+        record(SENT, msgType, msg);
+    }
+
+    public synchronized void recordReceived(String line) throws IOException {
+        record(RECEIVED, line, null);
+    }
+
+    private void record(int direction, String a, String b) throws IOException {
+        long micros = (System.nanoTime() - startNanos) / 1000;
+        out.writeByte(direction);
+        writeVarint(out, micros - lastMicros);
+        writeString(out, a);
+        writeString(out, b);
+        lastMicros = micros;
+    }
+
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    static void writeVarint(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int len = (int) readVarint(in);
+        if (len == 0) return null;
+        byte[] bytes = new byte[len - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
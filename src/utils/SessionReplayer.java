@@ -0,0 +1,150 @@
+package utils;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays back a session recorded by SessionRecorder through CommMgr (see CommMgr.openReplay()). Received messages are
+ * handed out in their original order, either at their original time offsets or as fast as possible. Sent messages
+ * are compared against the recording so that any divergence of the replayed run is reported.
+ */
+
+public class SessionReplayer {
+    /**
+     * A single recorded message.
+     */
+    public static class Entry {
+        public final int direction;
+        public final long micros;       // since the start of the recording
+        public final String first;      // msgType (sent) or line (received)
+        public final String second;     // msg (sent) or null (received)
+
+        Entry(int direction, long micros, String first, String second) {
+            this.direction = direction;
+            this.micros = micros;
+            this.first = first;
+            this.second = second;
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final long recordedAt;
+    private final boolean realTime;
+    private int sentCursor;
+    private int receivedCursor;
+    private int mismatches;
+    private int firstMismatch = -1;
+    private long replayStartNanos = -1;
+
+    public SessionReplayer(String filename, boolean realTime) throws IOException {
+        this.realTime = realTime;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+            byte[] magic = new byte[SessionRecorder.MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, SessionRecorder.MAGIC) || in.readUnsignedByte() != SessionRecorder.VERSION) {
+                throw new IOException(filename + " is not a session recording");
+            }
+            recordedAt = in.readLong();
+
+            readEntries(in);
+        }
+    }
+
+    private void readEntries(DataInputStream in) throws IOException {
+        long micros = 0;
+        try {
+            while (true) {
+                int direction = in.read();
+                if (direction == -1) break;
+                micros += SessionRecorder.readVarint(in);
+                entries.add(new Entry(direction, micros, SessionRecorder.readString(in), SessionRecorder.readString(in)));
+            }
+        } catch (EOFException e) {
+            // A recording cut short by a crash is still replayable up to the last complete record.
+        }
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns the wall clock time (epoch ms) at which the session was recorded.
+     */
+    public long getRecordedAt() {
+        return recordedAt;
+    }
+
+    /**
+     * Returns the next received message, or null at the end of the recording. In real-time mode, blocks until the
+     * message's original offset from the start of the session has passed.
+     */
+    public synchronized String nextReceived() {
+        if (replayStartNanos < 0) replayStartNanos = System.nanoTime();
+
+        while (receivedCursor < entries.size() && entries.get(receivedCursor).direction != SessionRecorder.RECEIVED) {
+            receivedCursor++;
+        }
+        if (receivedCursor >= entries.size()) return null;
+
+        Entry e = entries.get(receivedCursor++);
+        if (realTime) {
+            long waitMicros = e.micros - (System.nanoTime() - replayStartNanos) / 1000;
+            if (waitMicros > 0) {
+                try {
+                    TimeUnit.MICROSECONDS.sleep(waitMicros);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        return e.first;
+    }
+
+    /**
+     * Compares a message sent during the replay with the next recorded sent message.
+     */
+    public synchronized void expectSent(String msg, String msgType) {
+        if (replayStartNanos < 0) replayStartNanos = System.nanoTime();
+
+        while (sentCursor < entries.size() && entries.get(sentCursor).direction != SessionRecorder.SENT) {
+            sentCursor++;
+        }
+
+        boolean matches = false;
+        if (sentCursor < entries.size()) {
+            Entry e = entries.get(sentCursor++);
+            matches = e.first.equals(msgType) && Objects.equals(e.second, msg);
+        }
+
+        if (!matches) {
+            if (firstMismatch < 0) {
+                firstMismatch = sentCursor - 1;
+                System.out.println("Replay diverged from the recording at record " + firstMismatch + ": sent " + msgType + " " + msg);
+            }
+            mismatches++;
+        }
+    }
+
+    /**
+     * Returns the number of sent messages that did not match the recording.
+     */
+    public synchronized int getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * Returns true once all recorded received messages have been played back.
+     */
+    public synchronized boolean isFinished() {
+        for (int i = receivedCursor; i < entries.size(); i++) {
+            if (entries.get(i).direction == SessionRecorder.RECEIVED) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,26 @@
+package utils;
+
+/**
+ * Simulated clock that only moves when told to. elapse() returns immediately, so a simulated run takes as long as
+ * its computation, while the time it reports is that of the simulated movements.
+ */
+
+public class VirtualClock implements Clock {
+    private long now;
+
+    public VirtualClock() {
+        this(0);
+    }
+
+    public VirtualClock(long startMillis) {
+        this.now = startMillis;
+    }
+
+    public synchronized long currentTimeMillis() {
+        return now;
+    }
+
+    public synchronized void elapse(long millis) {
+        if (millis > 0) now += millis;
+    }
+}
@@ -0,0 +1,23 @@
+package utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clock backed by the system clock. elapse() sleeps, which also paces the simulator's animation.
+ */
+
+public class WallClock implements Clock {
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    public void elapse(long millis) {
+        if (millis <= 0) return;
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            System.out.println("Something went wrong in WallClock.elapse()!");
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package robot;
+
+import org.junit.jupiter.api.Test;
+import robot.RobotConstants.MOVEMENT;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static robot.RobotConstants.MOVEMENT.*;
+
+class RouteCompilerTest {
+
+    @Test
+    void compilesRuns() {
+        assertEquals("F4RF2L2F", RouteCompiler.compile(List.of(FORWARD, FORWARD, FORWARD, FORWARD, RIGHT, FORWARD, FORWARD, LEFT, LEFT, FORWARD)));
+        assertEquals("BCF", RouteCompiler.compile(List.of(BACKWARD, CALIBRATE, FORWARD)));
+        assertEquals("", RouteCompiler.compile(List.of()));
+    }
+
+    @Test
+    void splitsRunsLongerThanMaxRepeat() {
+        assertEquals("F10", RouteCompiler.compile(repeat(FORWARD, 10)));
+        assertEquals("F10F", RouteCompiler.compile(repeat(FORWARD, 11)));
+        assertEquals("F10F7", RouteCompiler.compile(repeat(FORWARD, 17)));
+        assertEquals("F10F10F5", RouteCompiler.compile(repeat(FORWARD, 25)));
+
+        List<MOVEMENT> route = repeat(LEFT, 12);
+        route.addAll(repeat(FORWARD, 3));
+        assertEquals("L10L2F3", RouteCompiler.compile(route));
+    }
+
+    @Test
+    void decodesWhatItCompiles() {
+        List<MOVEMENT> route = repeat(FORWARD, 17);
+        route.add(RIGHT);
+        route.addAll(repeat(FORWARD, 2));
+        route.add(CALIBRATE);
+        String program = RouteCompiler.compile(route);
+
+        List<MOVEMENT> decoded = new ArrayList<>();
+        for (int i = 0; i < program.length(); i = RouteCompiler.nextInstruction(program, i)) {
+            int count = RouteCompiler.getCount(program, i);
+            assertTrue(count >= 1 && count <= RobotConstants.MAX_REPEAT, program);
+            decoded.addAll(repeat(RouteCompiler.getMovement(program, i), count));
+        }
+        assertEquals(route, decoded);
+    }
+
+    @Test
+    void readsInstructions() {
+        String program = "F10RF2";
+        assertEquals(FORWARD, RouteCompiler.getMovement(program, 0));
+        assertEquals(10, RouteCompiler.getCount(program, 0));
+        assertEquals(3, RouteCompiler.nextInstruction(program, 0));
+
+        assertEquals(RIGHT, RouteCompiler.getMovement(program, 3));
+        assertEquals(1, RouteCompiler.getCount(program, 3));
+        assertEquals(4, RouteCompiler.nextInstruction(program, 3));
+
+        assertEquals(2, RouteCompiler.getCount(program, 4));
+        assertEquals(program.length(), RouteCompiler.nextInstruction(program, 4));
+    }
+
+    private static List<MOVEMENT> repeat(MOVEMENT m, int count) {
+        return new ArrayList<>(Collections.nCopies(count, m));
+    }
+}
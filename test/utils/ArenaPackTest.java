@@ -0,0 +1,117 @@
+package utils;
+
+import map.Arena;
+import map.ArenaGenerator;
+import map.MapConstants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaPackTest {
+    private static final int HEADER_SIZE = 12;
+    private static final int INDEX_ENTRY_SIZE = 16;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsArenas() throws IOException {
+        List<Arena> arenas = new ArenaGenerator(7).stream(5).collect(Collectors.toList());
+        String path = dir.resolve("generated.pack").toString();
+        ArenaPack.write(path, arenas);
+
+        ArenaPack pack = ArenaPack.open(path);
+        assertEquals(path, pack.getPath());
+        assertEquals(arenas.size(), pack.size());
+        for (int i = 0; i < arenas.size(); i++) {
+            assertEquals(arenas.get(i).getName(), pack.getName(i));
+            assertSameObstacles(arenas.get(i), pack.get(i));
+        }
+        assertEquals(arenas.size(), pack.stream().count());
+    }
+
+    @Test
+    void roundTripsNonAsciiNamesAndEmptyPacks() throws IOException {
+        String path = dir.resolve("names.pack").toString();
+        boolean[][] obstacles = new boolean[MapConstants.MAP_ROWS][MapConstants.MAP_COLS];
+        obstacles[5][7] = true;
+        ArenaPack.write(path, List.of(new Arena("arène", obstacles), new Arena("", obstacles)));
+
+        ArenaPack pack = ArenaPack.open(path);
+        assertEquals("arène", pack.getName(0));
+        assertEquals("", pack.getName(1));
+        assertTrue(pack.get(1).isObstacle(5, 7));
+        assertEquals(1, pack.get(1).getObstacleCount());
+
+        String empty = dir.resolve("empty.pack").toString();
+        ArenaPack.write(empty, List.of());
+        assertEquals(0, ArenaPack.open(empty).size());
+    }
+
+    @Test
+    void rejectsIndicesOutOfRange() throws IOException {
+        String path = dir.resolve("one.pack").toString();
+        ArenaPack.write(path, new ArenaGenerator(1).stream(1).collect(Collectors.toList()));
+        ArenaPack pack = ArenaPack.open(path);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> pack.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> pack.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> pack.getName(1));
+    }
+
+    @Test
+    void rejectsCorruptHeaders() throws IOException {
+        assertCorrupt(buf -> buf.put(0, (byte) 'X'));
+        assertCorrupt(buf -> buf.put(4, (byte) (ArenaPack.VERSION + 1)));
+        assertCorrupt(buf -> buf.put(5, (byte) (MapConstants.MAP_ROWS + 1)));
+        assertCorrupt(buf -> buf.putInt(8, -1));
+        assertCorrupt(buf -> buf.putInt(8, 1000));
+
+        Path tooShort = dir.resolve("short.pack");
+        Files.write(tooShort, ArenaPack.MAGIC);
+        assertThrows(IOException.class, () -> ArenaPack.open(tooShort.toString()));
+    }
+
+    @Test
+    void rejectsIndexEntriesOutsideTheFile() throws IOException {
+        int entry = HEADER_SIZE + INDEX_ENTRY_SIZE;     // the second arena
+        assertCorrupt(buf -> buf.putLong(entry, -1));
+        assertCorrupt(buf -> buf.putLong(entry, buf.limit() - Arena.NUM_BYTES + 1));
+        assertCorrupt(buf -> buf.putLong(entry, Long.MAX_VALUE - 1));
+        assertCorrupt(buf -> buf.putInt(entry + 8, -1));
+        assertCorrupt(buf -> buf.putInt(entry + 8, buf.limit()));
+        assertCorrupt(buf -> buf.putInt(entry + 12, -1));
+        assertCorrupt(buf -> buf.putInt(entry + 12, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Writes a valid pack of three arenas, applies the corruption to its bytes and checks that open() rejects it.
+     */
+    private void assertCorrupt(Consumer<ByteBuffer> corruption) throws IOException {
+        Path path = dir.resolve("corrupt.pack");
+        ArenaPack.write(path.toString(), new ArenaGenerator(3).stream(3).collect(Collectors.toList()));
+
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path));
+        corruption.accept(buf);
+        Files.write(path, buf.array());
+
+        assertThrows(IOException.class, () -> ArenaPack.open(path.toString()));
+    }
+
+    private static void assertSameObstacles(Arena expected, Arena actual) {
+        for (int row = 0; row < MapConstants.MAP_ROWS; row++) {
+            for (int col = 0; col < MapConstants.MAP_COLS; col++) {
+                assertEquals(expected.isObstacle(row, col), actual.isObstacle(row, col), expected.getName() + " at (" + row + ", " + col + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCodecTest {
+
+    @Test
+    void roundTripsCommands() throws IOException {
+        assertEquals(CommMgr.EX_START, roundTrip(null, CommMgr.EX_START).toLine());
+        assertEquals(CommMgr.FP_START, roundTrip(null, CommMgr.FP_START).toLine());
+        assertEquals(CommMgr.BOT_START, roundTrip(null, CommMgr.BOT_START).toLine());
+    }
+
+    @Test
+    void roundTripsSingleMovements() throws IOException {
+        for (String m : new String[]{"F", "B", "L", "R", "C"}) {
+            BinaryCodec.Frame frame = roundTrip(m, CommMgr.INSTRUCTIONS);
+            assertEquals(CommMgr.INSTRUCTIONS, frame.msgType);
+            assertEquals(m, frame.msg);
+        }
+    }
+
+    @Test
+    void roundTripsForwardCounts() throws IOException {
+        assertEquals("F", roundTrip("1", CommMgr.INSTRUCTIONS).msg);
+        for (int count = 2; count <= 9; count++) {
+            assertEquals(Integer.toString(count), roundTrip(Integer.toString(count), CommMgr.INSTRUCTIONS).msg);
+        }
+        // Ten cells are sent as "0", and "10" is read the same way.
+        assertEquals("0", roundTrip("0", CommMgr.INSTRUCTIONS).msg);
+        assertEquals("0", roundTrip("10", CommMgr.INSTRUCTIONS).msg);
+    }
+
+    @Test
+    void encodesTheFullCount() throws IOException {
+        byte[] bytes = encode("10", CommMgr.INSTRUCTIONS);
+        assertArrayEquals(new byte[]{BinaryCodec.OP_INSTR, 'F', 10}, bytes);
+    }
+
+    @Test
+    void rejectsForwardCountsAboveTen() {
+        assertThrows(IOException.class, () -> encode("11", CommMgr.INSTRUCTIONS));
+        assertThrows(IOException.class, () -> encode("12", CommMgr.INSTRUCTIONS));
+        assertThrows(IOException.class, () -> encode("100", CommMgr.INSTRUCTIONS));
+        assertThrows(IOException.class, () -> encode("1F", CommMgr.INSTRUCTIONS));
+        assertThrows(IOException.class, () -> encode("FF", CommMgr.INSTRUCTIONS));
+        assertThrows(IOException.class, () -> decode(new byte[]{BinaryCodec.OP_INSTR, 'F', 11}));
+        assertThrows(IOException.class, () -> decode(new byte[]{BinaryCodec.OP_INSTR, 'F', 0}));
+        assertThrows(IOException.class, () -> decode(new byte[]{BinaryCodec.OP_INSTR, 'L', 2}));
+    }
+
+    @Test
+    void getForwardCount() {
+        assertEquals(0, BinaryCodec.getForwardCount("F"));
+        assertEquals(3, BinaryCodec.getForwardCount("3"));
+        assertEquals(10, BinaryCodec.getForwardCount("0"));
+        assertEquals(10, BinaryCodec.getForwardCount("10"));
+        assertEquals(-1, BinaryCodec.getForwardCount("12"));
+        assertEquals(-1, BinaryCodec.getForwardCount(""));
+        assertEquals(-1, BinaryCodec.getForwardCount(null));
+    }
+
+    @Test
+    void roundTripsSensorData() throws IOException {
+        String msg = "SRFL_1;SRFC_-1;SRFR_0;SRL_127;SRR_-128;LRL_42";
+        BinaryCodec.Frame frame = roundTrip(msg, CommMgr.SENSOR_DATA);
+        assertEquals(CommMgr.SENSOR_DATA, frame.msgType);
+        assertEquals(msg, frame.msg);
+    }
+
+    @Test
+    void rejectsSensorReadingsOutOfRange() {
+        assertThrows(IOException.class, () -> encode("SRFL_128;SRFC_1;SRFR_1;SRL_1;SRR_1;LRL_1", CommMgr.SENSOR_DATA));
+        assertThrows(IOException.class, () -> encode("SRFL_1;SRFC_1;SRFR_1;SRL_1;SRR_1;LRL_-129", CommMgr.SENSOR_DATA));
+        assertThrows(IOException.class, () -> encode("SRFL_1;SRFC_1;SRFR_1", CommMgr.SENSOR_DATA));
+    }
+
+    @Test
+    void roundTripsPositionMapAndRoute() throws IOException {
+        assertEquals(CommMgr.BOT_POS + ";18,13,N", roundTrip("18,13,N", CommMgr.BOT_POS).toLine());
+        assertEquals(CommMgr.MAP_STRINGS + ";FFC07F 0040", roundTrip("FFC07F 0040", CommMgr.MAP_STRINGS).toLine());
+        assertEquals(CommMgr.ROUTE + ";0F7RF3", roundTrip("0F7RF3", CommMgr.ROUTE).toLine());
+    }
+
+    @Test
+    void roundTripsOtherMessageTypes() throws IOException {
+        BinaryCodec.Frame frame = roundTrip("payload", "CUSTOM");
+        assertEquals("CUSTOM", frame.msgType);
+        assertEquals("payload", frame.msg);
+
+        frame = roundTrip(null, "CUSTOM");
+        assertEquals("CUSTOM", frame.msgType);
+        assertNull(frame.msg);
+    }
+
+    @Test
+    void decodesBatches() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        BinaryCodec.encodeBatchHeader(out, 3);
+        BinaryCodec.encode(out, "L", CommMgr.INSTRUCTIONS);
+        BinaryCodec.encode(out, "0", CommMgr.INSTRUCTIONS);
+        BinaryCodec.encode(out, "1,1,N", CommMgr.BOT_POS);
+
+        Queue<BinaryCodec.Frame> frames = decode(bytes.toByteArray());
+        assertEquals(3, frames.size());
+        assertEquals("L", frames.remove().msg);
+        assertEquals("0", frames.remove().msg);
+        assertEquals("1,1,N", frames.remove().msg);
+    }
+
+    @Test
+    void rejectsUnknownOpcodesAndTruncatedFrames() {
+        assertThrows(IOException.class, () -> decode(new byte[]{0x55}));
+        assertThrows(EOFException.class, () -> decode(new byte[]{BinaryCodec.OP_INSTR, 'F'}));
+        assertThrows(EOFException.class, () -> decode(new byte[0]));
+    }
+
+    private static byte[] encode(String msg, String msgType) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryCodec.encode(new DataOutputStream(bytes), msg, msgType);
+        return bytes.toByteArray();
+    }
+
+    private static Queue<BinaryCodec.Frame> decode(byte[] bytes) throws IOException {
+        Queue<BinaryCodec.Frame> frames = new ArrayDeque<>();
+        BinaryCodec.decode(new DataInputStream(new ByteArrayInputStream(bytes)), frames);
+        return frames;
+    }
+
+    private static BinaryCodec.Frame roundTrip(String msg, String msgType) throws IOException {
+        Queue<BinaryCodec.Frame> frames = decode(encode(msg, msgType));
+        assertEquals(1, frames.size());
+        return frames.remove();
+    }
+}
@@ -0,0 +1,95 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashSetTest {
+
+    @Test
+    void addsAndFindsKeys() {
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.add(42));
+        assertTrue(set.add(-7));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertTrue(set.add(Long.MAX_VALUE));
+        assertFalse(set.add(42));
+
+        assertEquals(4, set.size());
+        assertTrue(set.contains(42));
+        assertTrue(set.contains(-7));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertTrue(set.contains(Long.MAX_VALUE));
+        assertFalse(set.contains(43));
+    }
+
+    @Test
+    void tracksZeroSeparately() {
+        LongHashSet set = new LongHashSet();
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void growsPastItsExpectedSize() {
+        LongHashSet set = new LongHashSet(4);
+        for (long key = 1; key <= 10000; key++) {
+            assertTrue(set.add(key));
+        }
+        assertEquals(10000, set.size());
+        for (long key = 1; key <= 10000; key++) {
+            assertTrue(set.contains(key));
+        }
+        assertFalse(set.contains(10001));
+    }
+
+    @Test
+    void handlesKeysThatDifferOnlyInTheirHighBits() {
+        LongHashSet set = new LongHashSet(4);
+        for (int i = 1; i <= 1000; i++) {
+            assertTrue(set.add((long) i << 40));
+        }
+        assertEquals(1000, set.size());
+        for (int i = 1; i <= 1000; i++) {
+            assertTrue(set.contains((long) i << 40));
+            assertFalse(set.contains(((long) i << 40) + 1));
+        }
+    }
+
+    @Test
+    void matchesHashSet() {
+        Random random = new Random(1);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(5000) - 2500;     // small range, so that many keys repeat
+            assertEquals(expected.add(key), set.add(key));
+        }
+        assertEquals(expected.size(), set.size());
+        for (long key = -2600; key < 2600; key++) {
+            assertEquals(expected.contains(key), set.contains(key));
+        }
+    }
+
+    @Test
+    void clearEmptiesTheSet() {
+        LongHashSet set = new LongHashSet();
+        for (long key = 0; key < 100; key++) set.add(key);
+        set.clear();
+
+        assertEquals(0, set.size());
+        for (long key = 0; key < 100; key++) {
+            assertFalse(set.contains(key));
+        }
+        assertTrue(set.add(0));
+        assertTrue(set.add(1));
+        assertEquals(2, set.size());
+    }
+}
@@ -0,0 +1,62 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SensorDataParserTest {
+    private final int[] result = new int[SensorDataParser.NUM_READINGS];
+
+    @Test
+    void parsesAllReadings() {
+        assertTrue(SensorDataParser.parse("SDATA;SRFL_1;SRFC_2;SRFR_-1;SRL_1;SRR_2;LRL_3", result));
+        assertArrayEquals(new int[]{1, 2, -1, 1, 2, 3}, result);
+    }
+
+    @Test
+    void parsesMultiDigitReadings() {
+        assertTrue(SensorDataParser.parse("SDATA;SRFL_0;SRFC_10;SRFR_-12;SRL_9999;SRR_0;LRL_-9999", result));
+        assertArrayEquals(new int[]{0, 10, -12, 9999, 0, -9999}, result);
+    }
+
+    @Test
+    void toleratesTrailingWhitespace() {
+        assertTrue(SensorDataParser.parse("SDATA;SRFL_1;SRFC_2;SRFR_3;SRL_4;SRR_5;LRL_6\r\n", result));
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6}, result);
+    }
+
+    @Test
+    void acceptsAnyCharSequence() {
+        StringBuilder msg = new StringBuilder("SDATA;SRFL_1;SRFC_1;SRFR_1;SRL_1;SRR_1;LRL_1");
+        assertTrue(SensorDataParser.parse(msg, result));
+        assertArrayEquals(new int[]{1, 1, 1, 1, 1, 1}, result);
+    }
+
+    @Test
+    void rejectsNullAndShortResult() {
+        assertFalse(SensorDataParser.parse(null, result));
+        assertFalse(SensorDataParser.parse("SDATA;SRFL_1;SRFC_2;SRFR_3;SRL_4;SRR_5;LRL_6", new int[SensorDataParser.NUM_READINGS - 1]));
+    }
+
+    @Test
+    void rejectsMalformedPackets() {
+        String[] malformed = {
+                "",
+                "SDAT",
+                "MDATA;SRFL_1;SRFC_2;SRFR_3;SRL_4;SRR_5;LRL_6",     // wrong prefix
+                "SDATA",                                            // no readings
+                "SDATA;SRFL_1;SRFC_2;SRFR_3;SRL_4;SRR_5",           // too few readings
+                "SDATA;SRFL_1;SRFC_2;SRFR_3;SRL_4;SRR_5;LRL_6;X_7", // too many readings
+                "SDATA;SRFL_1;SRFC_2;SRFR_3;SRL_4;SRR_5;LRL_",      // missing value
+                "SDATA;SRFL_1;SRFC_-;SRFR_3;SRL_4;SRR_5;LRL_6",     // sign without digits
+                "SDATA;SRFL_1;SRFC;SRFR_3;SRL_4;SRR_5;LRL_6",       // label without separator
+                "SDATA;SRFL_1;SRFC_2x;SRFR_3;SRL_4;SRR_5;LRL_6",    // junk after a value
+                "SDATA;SRFL_12345;SRFC_2;SRFR_3;SRL_4;SRR_5;LRL_6", // too many digits
+                "SDATA;SRFL_1;SRFC_2;SRFR_3;SRL_4;SRR_5;LRL_6 x",   // junk after trailing whitespace
+                "SDATA SRFL_1;SRFC_2;SRFR_3;SRL_4;SRR_5;LRL_6",     // wrong delimiter
+        };
+        for (String msg : malformed) {
+            assertFalse(SensorDataParser.parse(msg, result), msg);
+        }
+    }
+}